@@ -0,0 +1,101 @@
+package game.core;
+
+import game.utils.Direction;
+import game.utils.GameConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a full tick of an {@link Arena} as the number of snakes grows. Each snake turns aside when the cell
+ * ahead of it is blocked, and snakes that die anyway are placed back on the grid, so the number of snakes stays
+ * roughly the same throughout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArenaBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"1024"})
+    public int boardSize;
+
+    /** The number of snakes in the arena. */
+    @Param({"16", "256", "4096"})
+    public int snakes;
+
+    /** The arena being benchmarked. */
+    private Arena arena;
+
+    /**
+     * Creates an arena with as much food as snakes.
+     */
+    @Setup
+    public void setup() {
+        arena = new Arena(GameConfig.of(boardSize, boardSize, 0), snakes, snakes, 0);
+    }
+
+    /**
+     * Steers every snake away from whatever is ahead of it, runs a single tick of the arena and places the snakes
+     * that died back on the grid.
+     * @return the arena, so the tick is not optimized away.
+     */
+    @Benchmark
+    public Arena step() {
+        Grid grid = arena.getGrid();
+        for (int i = 0; i < snakes; i++) {
+            if (arena.isAlive(i))
+                steer(arena, grid, i);
+        }
+        arena.step();
+        for (int i = 0; i < snakes; i++) {
+            if (!arena.isAlive(i))
+                arena.respawn(i);
+        }
+        return arena;
+    }
+
+    /**
+     * Turns a snake left or right if the cell ahead of it is blocked.
+     * @param arena the arena the snake is in.
+     * @param grid the grid of the arena.
+     * @param snake the index of the snake.
+     */
+    private static void steer(Arena arena, Grid grid, int snake) {
+        int head = arena.getHeadCell(snake);
+        Direction direction = arena.getDirection(snake);
+        if (arena.isFree(head + offset(grid, direction)))
+            return;
+        boolean vertical = direction == Direction.UP || direction == Direction.DOWN;
+        Direction first = vertical ? Direction.LEFT : Direction.UP;
+        Direction second = vertical ? Direction.RIGHT : Direction.DOWN;
+        arena.changeDirection(snake, arena.isFree(head + offset(grid, first)) ? first : second);
+    }
+
+    /**
+     * Gets the offset to add to a packed cell index to move one cell in the given direction.
+     * @param grid the grid of the arena.
+     * @param direction the direction to move in.
+     * @return the offset of the neighbouring cell.
+     */
+    private static int offset(Grid grid, Direction direction) {
+        return switch (direction) {
+            case UP -> -grid.stride();
+            case DOWN -> grid.stride();
+            case LEFT -> -1;
+            case RIGHT -> 1;
+        };
+    }
+}
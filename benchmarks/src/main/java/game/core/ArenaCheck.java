@@ -0,0 +1,184 @@
+package game.core;
+
+import game.utils.Direction;
+
+import java.util.Random;
+
+/**
+ * Checks the deaths, growth and board of an {@link Arena} against a brute-force prediction that tests every living
+ * snake against every other one, with snakes turning and respawning at random on crowded and sparse boards.
+ */
+public final class ArenaCheck {
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private ArenaCheck() {
+
+    }
+
+    /**
+     * Runs the check.
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        BenchmarkBoards.quietLogs();
+        check(50, 40, 30, 20_000);
+        check(500, 100, 200, 5_000);
+        check(8, 8, 4, 50_000);
+        BenchmarkBoards.finish();
+    }
+
+    /**
+     * Plays an arena and compares every tick with the reference.
+     * @param snakes the number of snakes.
+     * @param size the number of rows and cols of the grid.
+     * @param food the number of pieces of food kept in the arena.
+     * @param ticks the number of ticks played.
+     */
+    private static void check(int snakes, int size, int food, int ticks) {
+        Arena arena = new Arena(BenchmarkBoards.square(size), snakes, food, BenchmarkBoards.SEED);
+        Grid grid = arena.getGrid();
+        Random rand = BenchmarkBoards.random();
+        Direction[] queued = new Direction[snakes];
+        int[] newHeads = new int[snakes];
+        boolean[] eating = new boolean[snakes];
+        boolean[] dying = new boolean[snakes];
+        int[] lengths = new int[snakes];
+        int[] scores = new int[snakes];
+        long died = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < snakes; i++) {
+                queued[i] = null;
+                if (arena.isAlive(i) && rand.nextInt(4) == 0) {
+                    Direction direction = BenchmarkBoards.randomDirection(rand);
+                    arena.changeDirection(i, direction);
+                    // the arena ignores turns back onto the body
+                    int heading = BenchmarkBoards.offset(grid, arena.getDirection(i));
+                    if (BenchmarkBoards.offset(grid, direction) + heading != 0)
+                        queued[i] = direction;
+                }
+            }
+            int expectedDeaths = predict(arena, queued, newHeads, eating, dying);
+            for (int i = 0; i < snakes; i++) {
+                lengths[i] = arena.length(i);
+                scores[i] = arena.getScore(i);
+            }
+
+            int deaths = arena.step();
+            died += deaths;
+            if (deaths != expectedDeaths)
+                report(snakes, tick, "expected " + expectedDeaths + " deaths but got " + deaths);
+            for (int i = 0; i < snakes; i++) {
+                if (lengths[i] == 0)
+                    continue;
+                int growth = eating[i] ? 1 : 0;
+                if (arena.isAlive(i) == dying[i])
+                    report(snakes, tick, "snake " + i + " expected dead " + dying[i]);
+                else if (!dying[i] && (arena.length(i) != lengths[i] + growth
+                        || arena.getScore(i) != scores[i] + growth || arena.getHeadCell(i) != newHeads[i]))
+                    report(snakes, tick, "snake " + i + " did not move, grow or score as expected");
+            }
+            checkBoard(arena, snakes, tick, food);
+
+            for (int i = 0; i < snakes; i++) {
+                if (!arena.isAlive(i) && rand.nextInt(3) == 0)
+                    arena.respawn(i);
+            }
+        }
+        System.out.println("Snakes: " + snakes + ", grid: " + size + "x" + size + ", ticks: " + ticks + ", deaths: "
+                + died);
+    }
+
+    /**
+     * Predicts the next tick by checking every living snake against every other one.
+     * @param arena the arena.
+     * @param queued the direction queued for each snake, or {@code null} if it keeps going straight.
+     * @param newHeads filled with the cell each living snake's head moves into.
+     * @param eating filled with whether each living snake eats.
+     * @param dying filled with whether each snake dies.
+     * @return the number of snakes that die.
+     */
+    private static int predict(Arena arena, Direction[] queued, int[] newHeads, boolean[] eating, boolean[] dying) {
+        Grid grid = arena.getGrid();
+        int snakes = arena.snakeCount();
+        for (int i = 0; i < snakes; i++) {
+            dying[i] = false;
+            if (!arena.isAlive(i))
+                continue;
+            Direction direction = queued[i] != null ? queued[i] : arena.getDirection(i);
+            newHeads[i] = arena.getHeadCell(i) + BenchmarkBoards.offset(grid, direction);
+            eating[i] = arena.isFood(newHeads[i]);
+        }
+        int deaths = 0;
+        for (int i = 0; i < snakes; i++) {
+            if (!arena.isAlive(i))
+                continue;
+            int head = newHeads[i];
+            boolean dies = !grid.inBounds(grid.x(head), grid.y(head));
+            for (int j = 0; j < snakes && !dies; j++) {
+                if (!arena.isAlive(j))
+                    continue;
+                if (j != i && newHeads[j] == head)
+                    dies = true;
+                // the tail of a snake that is not eating moves out of the way
+                int body = arena.length(j) - (eating[j] ? 0 : 1);
+                for (int k = 0; k < body && !dies; k++)
+                    dies = arena.getCell(j, k) == head;
+            }
+            dying[i] = dies;
+            if (dies)
+                deaths++;
+        }
+        return deaths;
+    }
+
+    /**
+     * Checks that the bodies are joined, do not overlap and match the cells of the arena, that dead snakes have no
+     * body, and that the arena holds as much food as there is room for.
+     * @param arena the arena.
+     * @param snakes the number of snakes.
+     * @param tick the tick just played.
+     * @param food the number of pieces of food kept in the arena.
+     */
+    private static void checkBoard(Arena arena, int snakes, int tick, int food) {
+        Grid grid = arena.getGrid();
+        int[] owners = new int[grid.packedSize()];
+        int occupied = 0;
+        for (int i = 0; i < snakes; i++) {
+            if (!arena.isAlive(i)) {
+                if (arena.length(i) != 0)
+                    report(snakes, tick, "dead snake " + i + " still has a body");
+                continue;
+            }
+            for (int k = 0; k < arena.length(i); k++) {
+                int cell = arena.getCell(i, k);
+                if (owners[cell] != 0 || arena.snakeAt(cell) != i)
+                    report(snakes, tick, "cell " + cell + " of snake " + i + " overlaps or is not mapped to it");
+                owners[cell] = i + 1;
+                int step = k == 0 ? 0 : Math.abs(cell - arena.getCell(i, k - 1));
+                if (k > 0 && step != 1 && step != grid.stride())
+                    report(snakes, tick, "body of snake " + i + " is not joined at segment " + k);
+            }
+            occupied += arena.length(i);
+        }
+        int foodCells = 0;
+        for (int cell = 0; cell < grid.packedSize(); cell++) {
+            if (arena.isFood(cell))
+                foodCells++;
+            if (arena.snakeAt(cell) >= 0 && owners[cell] == 0)
+                report(snakes, tick, "cell " + cell + " is mapped to snake " + arena.snakeAt(cell) + " but not in it");
+        }
+        if (foodCells != arena.foodCount() || foodCells != Math.min(food, grid.area() - occupied))
+            report(snakes, tick, "expected " + Math.min(food, grid.area() - occupied) + " food but found "
+                    + foodCells + " cells and a count of " + arena.foodCount());
+    }
+
+    /**
+     * Counts a mismatch, naming the arena and tick it was found on.
+     * @param snakes the number of snakes in the arena.
+     * @param tick the tick the mismatch was found on.
+     * @param message what did not match.
+     */
+    private static void report(int snakes, int tick, String message) {
+        BenchmarkBoards.mismatch("Arena of " + snakes + " snakes, tick " + tick + ": " + message);
+    }
+}
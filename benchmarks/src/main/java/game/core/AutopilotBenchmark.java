@@ -0,0 +1,68 @@
+package game.core;
+
+import game.utils.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a single decision of the {@link Autopilot}. The snake is coiled as described in
+ * {@link BenchmarkBoards} and is moved along the cycle after each decision rather than in the direction decided, so
+ * every decision is made on a board of the same shape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutopilotBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The length of the snake at the start of each game. */
+    @Param({"16", "2048"})
+    public int snakeLength;
+
+    /** The engine of the game being played. */
+    private GameEngine engine;
+
+    /** The autopilot being benchmarked. */
+    private Autopilot autopilot;
+
+    /**
+     * Starts a game with a snake of the given length.
+     */
+    @Setup
+    public void setup() {
+        engine = new GameEngine();
+        autopilot = new Autopilot();
+        BenchmarkBoards.coil(engine, boardSize, snakeLength);
+    }
+
+    /**
+     * Decides a direction for the snake, then moves it one cell along the cycle.
+     * @return the direction decided, so the decision is not optimized away.
+     */
+    @Benchmark
+    public Direction decide() {
+        if (engine.hasEnded())
+            BenchmarkBoards.coil(engine, boardSize, snakeLength);
+        Direction direction = autopilot.decide(engine);
+        Snake snake = engine.getSnake();
+        snake.changeDirection(BenchmarkBoards.nextDirection(snake, boardSize));
+        engine.updateGame();
+        return direction;
+    }
+}
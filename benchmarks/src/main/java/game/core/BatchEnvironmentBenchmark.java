@@ -0,0 +1,74 @@
+package game.core;
+
+import game.utils.GameConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a tick of every game of a {@link BatchEnvironment}. The actions are drawn at random before the
+ * benchmark, mostly keeping the snakes going straight, so games keep ending and being started again as they would
+ * early in training.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchEnvironmentBenchmark {
+    /** The number of sets of actions cycled through. */
+    private static final int ACTION_SETS = 64;
+
+    /** The number of rows and cols of the grid. */
+    @Param({"10", "32"})
+    public int boardSize;
+
+    /** The number of games played at once. */
+    @Param({"1024", "16384"})
+    public int games;
+
+    /** The environment being benchmarked. */
+    private BatchEnvironment environment;
+
+    /** The actions of every game for each tick, cycled through in order. */
+    private int[][] actions;
+
+    /** The number of ticks run so far. */
+    private int tick;
+
+    /**
+     * Creates the environment and draws the actions.
+     */
+    @Setup
+    public void setup() {
+        environment = new BatchEnvironment(GameConfig.of(boardSize, boardSize, 0), games, 0);
+        Random rand = new Random(0);
+        actions = new int[ACTION_SETS][games];
+        for (int[] set : actions) {
+            for (int i = 0; i < games; i++)
+                set[i] = rand.nextInt(4) == 0 ? rand.nextInt(4) : BatchEnvironment.NO_ACTION;
+        }
+        tick = 0;
+    }
+
+    /**
+     * Runs a single tick of every game.
+     * @return the number of games that ended, so the tick is not optimized away.
+     */
+    @Benchmark
+    public int step() {
+        return environment.step(actions[tick++ % ACTION_SETS]);
+    }
+}
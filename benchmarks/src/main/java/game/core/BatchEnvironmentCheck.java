@@ -0,0 +1,135 @@
+package game.core;
+
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.awt.Point;
+import java.util.Random;
+
+/**
+ * Checks that every game of a {@link BatchEnvironment} matches a {@link GameEngine} given the same seed and inputs
+ * after every tick, with inputs from an {@link Autopilot} per game and random turns mixed in.
+ */
+public final class BatchEnvironmentCheck {
+    /** The number of games whose free cells are compared on each tick is one in this many. */
+    private static final int FREE_CELL_SAMPLE = 50;
+
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private BatchEnvironmentCheck() {
+
+    }
+
+    /**
+     * Runs the check.
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        BenchmarkBoards.quietLogs();
+        // a board the snake fills often
+        check(new GameConfig(3, 3, 0, 10, 1, new Point(0, 0), new Point(1, 0)), 64, 30_000);
+        check(BenchmarkBoards.square(8), 64, 20_000);
+        check(BenchmarkBoards.square(17), 32, 20_000);
+        BenchmarkBoards.finish();
+    }
+
+    /**
+     * Plays a batch of games in lockstep with one engine per game and compares them after every tick.
+     * @param config the settings of every game.
+     * @param games the number of games played at once.
+     * @param ticks the number of ticks played.
+     */
+    private static void check(GameConfig config, int games, int ticks) {
+        BatchEnvironment env = new BatchEnvironment(config, games, BenchmarkBoards.SEED);
+        GameEngine[] engines = new GameEngine[games];
+        Autopilot[] pilots = new Autopilot[games];
+        for (int i = 0; i < games; i++) {
+            engines[i] = new GameEngine();
+            engines[i].startGame(config, env.getSeed(i));
+            pilots[i] = new Autopilot();
+        }
+        Random rand = BenchmarkBoards.random();
+        int[] actions = new int[games];
+        Direction[] inputs = new Direction[games];
+        boolean[] restarting = new boolean[games];
+        long ended = 0;
+        long won = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < games; i++) {
+                restarting[i] = env.hasEnded(i);
+                if (restarting[i]) {
+                    // the action of a game that is started again is ignored
+                    actions[i] = BenchmarkBoards.randomDirection(rand).ordinal();
+                    continue;
+                }
+                Direction input = rand.nextInt(30) == 0 ? BenchmarkBoards.randomDirection(rand)
+                        : pilots[i].decide(engines[i]);
+                if (rand.nextInt(10) == 0)
+                    input = null;
+                inputs[i] = input;
+                actions[i] = input == null ? BatchEnvironment.NO_ACTION : input.ordinal();
+            }
+            env.step(actions);
+            for (int i = 0; i < games; i++) {
+                GameEngine engine = engines[i];
+                TickOutcome outcome;
+                if (restarting[i]) {
+                    engine.startGame(config, env.getSeed(i));
+                    pilots[i] = new Autopilot();
+                    outcome = TickOutcome.IDLE;
+                } else {
+                    outcome = engine.step(inputs[i]);
+                }
+                if (outcome == TickOutcome.COLLIDED || outcome == TickOutcome.WON)
+                    ended++;
+                if (outcome == TickOutcome.WON)
+                    won++;
+                compare(env, i, engine, outcome, tick, rand.nextInt(FREE_CELL_SAMPLE) == 0);
+            }
+        }
+        System.out.println("Grid: " + config.numRows() + "x" + config.numCols() + ", games at once: " + games
+                + ", ticks: " + ticks + ", games ended: " + ended + " (" + won + " won)");
+    }
+
+    /**
+     * Compares a game of the batch with its engine.
+     * @param env the batch.
+     * @param game the index of the game.
+     * @param engine the engine shadowing the game.
+     * @param outcome the outcome of the engine's last tick.
+     * @param tick the tick just played.
+     * @param freeCells true to also compare every free cell.
+     */
+    private static void compare(BatchEnvironment env, int game, GameEngine engine, TickOutcome outcome, int tick,
+                                boolean freeCells) {
+        Snake snake = engine.getSnake();
+        if (outcome != env.getOutcome(game) || snake.getHeadCell() != env.getHeadCell(game)
+                || snake.length() != env.length(game) || engine.getFood().getCell() != env.getFoodCell(game)
+                || engine.getScore() != env.getScore(game)
+                || snake.getCell(snake.length() - 1) != env.getCell(game, env.length(game) - 1)) {
+            report(tick, game, "engine " + outcome + " with length " + snake.length() + ", batch "
+                    + env.getOutcome(game) + " with length " + env.length(game));
+            return;
+        }
+        if (!freeCells)
+            return;
+        Grid grid = snake.getGrid();
+        for (int cell = 0; cell < grid.packedSize(); cell++) {
+            boolean free = grid.inBounds(grid.x(cell), grid.y(cell)) && !snake.isOccupied(cell);
+            if (free != env.isFree(game, cell)) {
+                report(tick, game, "cell " + cell + " is free in the " + (free ? "engine" : "batch") + " only");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counts a mismatch, naming the tick and game it was found on.
+     * @param tick the tick the mismatch was found on.
+     * @param game the index of the game.
+     * @param message what did not match.
+     */
+    private static void report(int tick, int game, String message) {
+        BenchmarkBoards.mismatch("Tick " + tick + ", game " + game + ": " + message);
+    }
+}
@@ -0,0 +1,154 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.awt.Point;
+import java.util.Random;
+import java.util.logging.Level;
+
+/**
+ * Helpers used to set up games for the benchmarks and checks. Games are played on square grids with an even number of
+ * rows so the snake can follow a cycle that visits every cell: it zigzags right and left across the rows, leaving the
+ * first column free to return to the top. Following the cycle, the snake never collides with the wall or itself.
+ * <p>
+ *     The checks play seeded random games against a reference, count what does not match with
+ *     {@link #mismatch(String)}, and end with {@link #finish()}, which exits with a non-zero status on a mismatch.
+ * </p>
+ */
+public final class BenchmarkBoards {
+    /** The seed of the games and random moves of the checks, so a failing check can be run again. */
+    public static final long SEED = 7;
+
+    /** The directions in the order of their ordinals. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The number of mismatches printed before the rest are only counted. */
+    private static final int MAX_REPORTED = 10;
+
+    /** The number of mismatches the running check has found. */
+    private static long mismatches = 0;
+
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private BenchmarkBoards() {
+
+    }
+
+    /**
+     * Creates the settings for a square grid where the snake starts in the top left corner on the cycle.
+     * @param size the number of rows and cols of the grid. Must be even and at least 4.
+     * @return the settings of the game.
+     */
+    public static GameConfig config(int size) {
+        if (size < 4 || size % 2 != 0)
+            throw new IllegalArgumentException("Board size must be even and at least 4");
+        return new GameConfig(size, size, 0, 1, 2, new Point(1, 0), new Point(size - 1, size - 1));
+    }
+
+    /**
+     * Starts a new game on the given engine and grows the snake along the cycle until it reaches the given length.
+     * @param engine the engine to start the game on.
+     * @param size the number of rows and cols of the grid.
+     * @param length the length of the snake. Must be less than the number of cells in the grid.
+     * @return the snake of the new game.
+     */
+    public static Snake coil(GameEngine engine, int size, int length) {
+        if (length >= size * size)
+            throw new IllegalArgumentException("Snake of length " + length + " does not fit a " + size + "x" + size
+                    + " board");
+        engine.startGame(config(size));
+        Snake snake = engine.getSnake();
+        while (snake.length() < length) {
+            engine.step(nextDirection(snake, size));
+            if (snake.length() < length)
+                snake.grow();
+        }
+        return snake;
+    }
+
+    /**
+     * Gets the direction the snake must move in to keep following the cycle.
+     * @param snake the snake following the cycle.
+     * @param size the number of rows and cols of the grid.
+     * @return the next direction of the snake.
+     */
+    public static Direction nextDirection(Snake snake, int size) {
+        int x = snake.getHeadX();
+        int y = snake.getHeadY();
+        if (x == 0)
+            return y == 0 ? Direction.RIGHT : Direction.UP;
+        if (y % 2 == 0)
+            return x < size - 1 ? Direction.RIGHT : Direction.DOWN;
+        if (x > 1 || y == size - 1)
+            return Direction.LEFT;
+        return Direction.DOWN;
+    }
+
+    /**
+     * Creates the settings for a square grid with the default start of the snake and food and no delay.
+     * @param size the number of rows and cols of the grid.
+     * @return the settings of the game.
+     */
+    public static GameConfig square(int size) {
+        return GameConfig.of(size, size, 0);
+    }
+
+    /**
+     * Raises the loggers to {@code INFO}, as on a production run, so the games do not log every move.
+     */
+    public static void quietLogs() {
+        LoggerSetup.setLevels(Level.INFO, Level.INFO);
+    }
+
+    /**
+     * Creates the random number generator a check picks its moves with, always seeded the same.
+     * @return a new {@code Random} seeded with {@code SEED}.
+     */
+    public static Random random() {
+        return new Random(SEED);
+    }
+
+    /**
+     * Picks a direction at random.
+     * @param rand used to pick the direction.
+     * @return the direction.
+     */
+    public static Direction randomDirection(Random rand) {
+        return DIRECTIONS[rand.nextInt(DIRECTIONS.length)];
+    }
+
+    /**
+     * Gets the offset to add to a packed cell index to move one cell in the given direction.
+     * @param grid the grid.
+     * @param direction the direction to move in.
+     * @return the offset of the neighbouring cell.
+     */
+    public static int offset(Grid grid, Direction direction) {
+        return switch (direction) {
+            case UP -> -grid.stride();
+            case DOWN -> grid.stride();
+            case LEFT -> -1;
+            case RIGHT -> 1;
+        };
+    }
+
+    /**
+     * Counts a mismatch found by a check, printing it if few have been found so far.
+     * @param message what did not match and where.
+     */
+    public static void mismatch(String message) {
+        if (++mismatches <= MAX_REPORTED)
+            System.out.println(message);
+    }
+
+    /**
+     * Prints the number of mismatches found by the check and exits with a non-zero status if there were any.
+     */
+    public static void finish() {
+        System.out.println("Mismatches: " + mismatches);
+        if (mismatches != 0)
+            System.exit(1);
+    }
+}
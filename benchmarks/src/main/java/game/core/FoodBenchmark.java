@@ -0,0 +1,57 @@
+package game.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for spawning the {@link Food} while the snake covers a given fraction of the grid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FoodBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The fraction of the grid covered by the snake. */
+    @Param({"0.01", "0.5", "0.99"})
+    public double fill;
+
+    /** The food being benchmarked. */
+    private Food food;
+
+    /**
+     * Creates a snake covering the given fraction of the grid.
+     */
+    @Setup
+    public void setup() {
+        GameEngine engine = new GameEngine();
+        int length = Math.max(2, (int) (fill * boardSize * boardSize));
+        BenchmarkBoards.coil(engine, boardSize, length);
+        food = engine.getFood();
+    }
+
+    /**
+     * Spawns the food at a new free cell.
+     * @return whether the food was spawned, so the spawn is not optimized away.
+     */
+    @Benchmark
+    public boolean spawn() {
+        return food.spawn();
+    }
+}
@@ -0,0 +1,62 @@
+package game.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a full tick of the {@link GameEngine}, including eating food and spawning new food. The snake follows
+ * the cycle described in {@link BenchmarkBoards}, so it only grows by eating. If it fills the grid the game is
+ * restarted with a snake of the original length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameEngineBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The length of the snake at the start of each game. */
+    @Param({"16", "2048"})
+    public int snakeLength;
+
+    /** The engine being benchmarked. */
+    private GameEngine engine;
+
+    /**
+     * Starts a game with a snake of the given length.
+     */
+    @Setup
+    public void setup() {
+        engine = new GameEngine();
+        BenchmarkBoards.coil(engine, boardSize, snakeLength);
+    }
+
+    /**
+     * Steers the snake along the cycle and runs a single tick of the game.
+     * @return the engine, so the tick is not optimized away.
+     */
+    @Benchmark
+    public GameEngine updateGame() {
+        if (engine.hasEnded())
+            BenchmarkBoards.coil(engine, boardSize, snakeLength);
+        Snake snake = engine.getSnake();
+        snake.changeDirection(BenchmarkBoards.nextDirection(snake, boardSize));
+        engine.updateGame();
+        return engine;
+    }
+}
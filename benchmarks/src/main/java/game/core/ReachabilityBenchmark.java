@@ -0,0 +1,69 @@
+package game.core;
+
+import game.utils.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the safe move queries of the {@link GameEngine}, which keep the regions of the grid the snake can
+ * move around in up to date as it moves. The snake is coiled as described in {@link BenchmarkBoards} and is moved
+ * along the cycle after each query, so every query follows a single tick, as it would for a bot deciding its next
+ * move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReachabilityBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The length of the snake at the start of each game. */
+    @Param({"16", "2048"})
+    public int snakeLength;
+
+    /** The engine of the game being played. */
+    private GameEngine engine;
+
+    /**
+     * Starts a game with a snake of the given length.
+     */
+    @Setup
+    public void setup() {
+        engine = new GameEngine();
+        BenchmarkBoards.coil(engine, boardSize, snakeLength);
+    }
+
+    /**
+     * Checks which directions are safe to move in, then moves the snake one cell along the cycle.
+     * @return the number of safe directions, so the queries are not optimized away.
+     */
+    @Benchmark
+    public int isSafe() {
+        if (engine.hasEnded())
+            BenchmarkBoards.coil(engine, boardSize, snakeLength);
+        int safe = 0;
+        for (Direction direction : Direction.values()) {
+            if (engine.isSafe(direction))
+                safe++;
+        }
+        Snake snake = engine.getSnake();
+        snake.changeDirection(BenchmarkBoards.nextDirection(snake, boardSize));
+        engine.updateGame();
+        return safe;
+    }
+}
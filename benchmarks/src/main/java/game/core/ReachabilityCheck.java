@@ -0,0 +1,129 @@
+package game.core;
+
+import game.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link GameEngine#reachableArea(Direction)} and {@link GameEngine#isSafe(Direction)} against a flood fill in
+ * every direction on every tick, with the {@link Autopilot} and random moves splitting and joining the regions.
+ */
+public final class ReachabilityCheck {
+    /** The number of rows and cols of the grid. Small enough for the snake to fill it and split it often. */
+    private static final int BOARD_SIZE = 12;
+
+    /** The number of games played. */
+    private static final int GAMES = 400;
+
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private ReachabilityCheck() {
+
+    }
+
+    /**
+     * Runs the check.
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        BenchmarkBoards.quietLogs();
+        Random rand = BenchmarkBoards.random();
+        GameEngine engine = new GameEngine();
+        Autopilot pilot = new Autopilot();
+        long ticks = 0;
+        long checks = 0;
+        for (int game = 0; game < GAMES; game++) {
+            engine.startGame(BenchmarkBoards.square(BOARD_SIZE), game);
+            while (!engine.hasEnded()) {
+                Snake snake = engine.getSnake();
+                List<Direction> safe = new ArrayList<>();
+                for (Direction direction : Direction.values()) {
+                    int start = snake.getHeadCell() + BenchmarkBoards.offset(snake.getGrid(), direction);
+                    boolean[] reachesTail = new boolean[1];
+                    int expectedArea = flood(snake, start, reachesTail);
+                    boolean expectedSafe = expectedArea > 0 && (reachesTail[0] || expectedArea >= snake.length());
+                    int area = engine.reachableArea(direction);
+                    boolean isSafe = engine.isSafe(direction);
+                    checks++;
+                    if (area != expectedArea || isSafe != expectedSafe)
+                        BenchmarkBoards.mismatch("Game " + game + ", tick " + ticks + ", " + direction
+                                + ": expected area " + expectedArea + " and safe " + expectedSafe + " but got " + area
+                                + " and " + isSafe);
+                    if (isSafe)
+                        safe.add(direction);
+                }
+                engine.step(pick(engine, pilot, safe, rand));
+                ticks++;
+            }
+        }
+        System.out.println("Games: " + GAMES + ", ticks: " + ticks + ", directions checked: " + checks);
+        BenchmarkBoards.finish();
+    }
+
+    /**
+     * Picks the next move: usually the move of the autopilot, sometimes a random safe move, and rarely any move at
+     * all.
+     * @param engine the engine of the current game.
+     * @param pilot the autopilot.
+     * @param safe the safe moves this tick.
+     * @param rand used to pick the move.
+     * @return the direction to move in.
+     */
+    private static Direction pick(GameEngine engine, Autopilot pilot, List<Direction> safe, Random rand) {
+        Direction auto = pilot.decide(engine);
+        if (auto != null && rand.nextInt(20) > 0)
+            return auto;
+        if (!safe.isEmpty() && rand.nextInt(10) > 0)
+            return safe.get(rand.nextInt(safe.size()));
+        return BenchmarkBoards.randomDirection(rand);
+    }
+
+    /**
+     * Counts the cells joined to the start cell by a breadth-first flood fill over the cells inside the grid that are
+     * not part of the snake, or are its tail.
+     * @param snake the snake.
+     * @param start the packed cell the fill starts from.
+     * @param reachesTail its first entry is set to whether the fill reached the tail.
+     * @return the number of cells filled, or {@code 0} if the start cell is not open.
+     */
+    private static int flood(Snake snake, int start, boolean[] reachesTail) {
+        Grid grid = snake.getGrid();
+        int tail = snake.getCell(snake.length() - 1);
+        if (!isOpen(snake, start, tail))
+            return 0;
+        int[] offsets = {-grid.stride(), grid.stride(), -1, 1};
+        boolean[] seen = new boolean[grid.packedSize()];
+        int[] queue = new int[grid.packedSize()];
+        int read = 0;
+        int write = 0;
+        queue[write++] = start;
+        seen[start] = true;
+        while (read < write) {
+            int cell = queue[read++];
+            if (cell == tail)
+                reachesTail[0] = true;
+            for (int offset : offsets) {
+                int next = cell + offset;
+                if (!seen[next] && isOpen(snake, next, tail)) {
+                    seen[next] = true;
+                    queue[write++] = next;
+                }
+            }
+        }
+        return write;
+    }
+
+    /**
+     * Returns {@code true} if a cell is inside the grid and is either free or the tail of the snake.
+     * @param snake the snake.
+     * @param cell the packed cell index.
+     * @param tail the packed cell index of the tail.
+     * @return true if the flood fill may enter the cell, false otherwise.
+     */
+    private static boolean isOpen(Snake snake, int cell, int tail) {
+        Grid grid = snake.getGrid();
+        return grid.inBounds(grid.x(cell), grid.y(cell)) && (cell == tail || !snake.isOccupied(cell));
+    }
+}
@@ -0,0 +1,76 @@
+package game.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for moving and growing the {@link Snake}. The snake follows the cycle described in
+ * {@link BenchmarkBoards}, so it can move forever without colliding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnakeBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The length of the snake at the start of each benchmark. */
+    @Param({"16", "2048"})
+    public int snakeLength;
+
+    /** The engine the snake is created by. */
+    private GameEngine engine;
+
+    /** The snake being benchmarked. */
+    private Snake snake;
+
+    /**
+     * Creates a snake of the given length on the grid.
+     */
+    @Setup
+    public void setup() {
+        engine = new GameEngine();
+        snake = BenchmarkBoards.coil(engine, boardSize, snakeLength);
+    }
+
+    /**
+     * Moves the snake one cell along the cycle.
+     * @return the snake, so the move is not optimized away.
+     */
+    @Benchmark
+    public Snake move() {
+        snake.changeDirection(BenchmarkBoards.nextDirection(snake, boardSize));
+        snake.move();
+        return snake;
+    }
+
+    /**
+     * Moves the snake one cell along the cycle and grows it. Once the snake has doubled in length it is recreated at
+     * its original length, so the cost of recreating it is spread over the growth that came before.
+     * @return the snake, so the move is not optimized away.
+     */
+    @Benchmark
+    public Snake grow() {
+        if (snake.length() >= Math.min(2 * snakeLength, boardSize * boardSize - 1))
+            snake = BenchmarkBoards.coil(engine, boardSize, snakeLength);
+        snake.changeDirection(BenchmarkBoards.nextDirection(snake, boardSize));
+        snake.move();
+        snake.grow();
+        return snake;
+    }
+}
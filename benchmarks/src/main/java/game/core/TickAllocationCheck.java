@@ -0,0 +1,86 @@
+package game.core;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that a full tick of the {@link GameEngine} allocates nothing once the game is running, including the ticks
+ * where the snake eats and new food is spawned. The snake follows the cycle described in {@link BenchmarkBoards}, and
+ * the loggers of the game are raised to {@code INFO} as they would be on a production run, so only the tick itself is
+ * measured.
+ * <p>
+ *     The JVM itself occasionally allocates a few bytes on the measured thread, so the ticks are measured in several
+ *     windows and the check passes if any window allocated nothing. An allocation in the tick shows up in every
+ *     window.
+ * </p>
+ * <p>
+ *     Run from the repository root with {@code java -cp benchmarks/target/benchmarks.jar game.core.TickAllocationCheck}.
+ *     Exits with a non-zero status if every window allocated.
+ * </p>
+ */
+public final class TickAllocationCheck {
+    /** The number of rows and cols of the grid. */
+    private static final int BOARD_SIZE = 64;
+
+    /** The length of the snake at the start of the game. */
+    private static final int SNAKE_LENGTH = 16;
+
+    /** The number of ticks run before measuring, so every path of the tick has been compiled. */
+    private static final int WARMUP_TICKS = 200_000;
+
+    /** The number of ticks measured in each window. */
+    private static final int MEASURED_TICKS = 400_000;
+
+    /** The number of windows measured. */
+    private static final int WINDOWS = 5;
+
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private TickAllocationCheck() {
+
+    }
+
+    /**
+     * Runs the check.
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        GameEngine engine = new GameEngine();
+        BenchmarkBoards.coil(engine, BOARD_SIZE, SNAKE_LENGTH);
+        BenchmarkBoards.quietLogs();
+
+        int length = tick(engine, WARMUP_TICKS);
+        long threadId = Thread.currentThread().getId();
+        long fewest = Long.MAX_VALUE;
+        for (int window = 0; window < WINDOWS; window++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            int lengthAfter = tick(engine, MEASURED_TICKS);
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            if (engine.hasEnded())
+                throw new IllegalStateException("The game ended during the check");
+            System.out.println("Ticks: " + MEASURED_TICKS + ", food eaten: " + (lengthAfter - length)
+                    + ", bytes allocated: " + allocated + " (" + (double) allocated / MEASURED_TICKS + " per tick)");
+            length = lengthAfter;
+            fewest = Math.min(fewest, allocated);
+        }
+        if (fewest != 0)
+            System.exit(1);
+    }
+
+    /**
+     * Steers the snake along the cycle and runs the given number of ticks.
+     * @param engine the engine to tick.
+     * @param ticks the number of ticks to run.
+     * @return the length of the snake after the ticks.
+     */
+    private static int tick(GameEngine engine, int ticks) {
+        Snake snake = engine.getSnake();
+        for (int i = 0; i < ticks && !engine.hasEnded(); i++) {
+            snake.changeDirection(BenchmarkBoards.nextDirection(snake, BOARD_SIZE));
+            engine.updateGame();
+        }
+        return snake.length();
+    }
+}
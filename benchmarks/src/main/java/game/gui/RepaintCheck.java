@@ -0,0 +1,150 @@
+package game.gui;
+
+import game.core.Autopilot;
+import game.core.BenchmarkBoards;
+import game.core.GameEngine;
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that a {@link GameGridPanel} repainting only the regions it asks Swing to repaint draws the same pixels as one
+ * repainting the whole grid, after every tick of games steered by the {@link Autopilot} and random moves.
+ */
+public final class RepaintCheck {
+    /** The number of rows and cols of the grid. */
+    private static final int BOARD_SIZE = 12;
+
+    /** The number of games played. */
+    private static final int GAMES = 12;
+
+    /** The most ticks played in a single game. */
+    private static final int MAX_TICKS = 2_000;
+
+    /** Private constructor to prevent instantiation.
+     * @hidden */
+    private RepaintCheck() {
+
+    }
+
+    /**
+     * Runs the check.
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        BenchmarkBoards.quietLogs();
+        GameConfig config = BenchmarkBoards.square(BOARD_SIZE);
+        int width = config.numCols() * config.cellSize();
+        int height = config.numRows() * config.cellSize();
+        GameEngine engine = new GameEngine();
+        engine.startGame(config, BenchmarkBoards.SEED);
+        RecordingPanel partial = new RecordingPanel(engine);
+        GameGridPanel full = new GameGridPanel(engine, false);
+        partial.setSize(width, height);
+        full.setSize(width, height);
+        BufferedImage partialFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage fullFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] partialPixels = ((DataBufferInt) partialFrame.getRaster().getDataBuffer()).getData();
+        int[] fullPixels = ((DataBufferInt) fullFrame.getRaster().getDataBuffer()).getData();
+        paint(partial, partialFrame, null);
+        paint(full, fullFrame, null);
+
+        Random rand = BenchmarkBoards.random();
+        Autopilot pilot = new Autopilot();
+        long frames = 0;
+        long paintedArea = 0;
+        for (int game = 0; game < GAMES; game++) {
+            if (game > 0)
+                engine.startGame(config, BenchmarkBoards.SEED + game);
+            for (int tick = 0; tick < MAX_TICKS && !engine.hasEnded(); tick++) {
+                Direction auto = pilot.decide(engine);
+                engine.step(auto != null && rand.nextInt(40) > 0 ? auto : BenchmarkBoards.randomDirection(rand));
+                // ticked as the Swing timer ticks the game, see SnakePanel#actionPerformed
+                partial.afterTick();
+                full.afterTick();
+                Rectangle dirty = partial.takeDirty();
+                if (dirty != null) {
+                    dirty = dirty.intersection(new Rectangle(0, 0, width, height));
+                    paintedArea += (long) dirty.width * dirty.height;
+                    paint(partial, partialFrame, dirty);
+                }
+                paint(full, fullFrame, null);
+                frames++;
+                if (!Arrays.equals(partialPixels, fullPixels))
+                    BenchmarkBoards.mismatch("Game " + game + ", tick " + tick + ": frame differs after repainting "
+                            + dirty);
+            }
+        }
+        System.out.println("Frames: " + frames + ", average area repainted: "
+                + String.format("%.1f%%", 100.0 * paintedArea / frames / (width * height)));
+        BenchmarkBoards.finish();
+    }
+
+    /**
+     * Paints a panel onto a frame.
+     * @param panel the panel to paint.
+     * @param frame the image to paint onto, holding the previous frame.
+     * @param clip the region to repaint, or {@code null} to repaint the whole panel.
+     */
+    private static void paint(GameGridPanel panel, BufferedImage frame, Rectangle clip) {
+        Graphics2D g2d = frame.createGraphics();
+        try {
+            if (clip != null)
+                g2d.setClip(clip);
+            panel.paint(g2d);
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * A {@code GameGridPanel} that records the regions it asks to be repainted instead of passing them to Swing.
+     */
+    private static final class RecordingPanel extends GameGridPanel {
+        /** Serialization version of the panel. */
+        private static final long serialVersionUID = 1L;
+
+        /** The union of the regions asked to be repainted since they were last taken, or {@code null} if none were. */
+        private Rectangle dirty;
+
+        /**
+         * Creates a new {@code RecordingPanel} painting the game of the given engine.
+         * @param engine the engine of the game.
+         */
+        RecordingPanel(GameEngine engine) {
+            super(engine, false);
+        }
+
+        /**
+         * Adds a region to the regions to repaint. Swing repaints the union of the regions of a component, so the
+         * union is kept.
+         * @param tm not used.
+         * @param x the x of the region.
+         * @param y the y of the region.
+         * @param width the width of the region.
+         * @param height the height of the region.
+         */
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            Rectangle region = new Rectangle(x, y, width, height);
+            dirty = dirty == null ? region : dirty.union(region);
+        }
+
+        /**
+         * Gets the regions asked to be repainted since this was last called, and forgets them.
+         * @return the union of the regions, or {@code null} if there are none.
+         */
+        Rectangle takeDirty() {
+            Rectangle taken = dirty;
+            dirty = null;
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package game.utils;
+
+import game.core.BenchmarkBoards;
+import game.core.GameEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the collision checks of the {@link CollisionDetector} against a snake of a given length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionDetectorBenchmark {
+    /** The number of rows and cols of the grid. */
+    @Param({"64", "1024"})
+    public int boardSize;
+
+    /** The length of the snake. */
+    @Param({"16", "2048"})
+    public int snakeLength;
+
+    /** The collision detector being benchmarked. */
+    private CollisionDetector cd;
+
+    /**
+     * Creates a snake of the given length and a collision detector for it.
+     */
+    @Setup
+    public void setup() {
+        GameEngine engine = new GameEngine();
+        BenchmarkBoards.coil(engine, boardSize, snakeLength);
+        cd = new CollisionDetector(engine.getSnake(), engine.getFood());
+    }
+
+    /**
+     * Checks if the snake has collided with itself.
+     * @return the result of the check, so it is not optimized away.
+     */
+    @Benchmark
+    public boolean checkSelfCollision() {
+        return cd.checkSelfCollision();
+    }
+
+    /**
+     * Checks if the snake has collided with the wall.
+     * @return the result of the check, so it is not optimized away.
+     */
+    @Benchmark
+    public boolean checkWallCollision() {
+        return cd.checkWallCollision();
+    }
+
+    /**
+     * Checks if the snake has collided with the food.
+     * @return the result of the check, so it is not optimized away.
+     */
+    @Benchmark
+    public boolean checkFoodCollision() {
+        return cd.checkFoodCollision();
+    }
+}
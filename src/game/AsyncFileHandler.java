@@ -0,0 +1,273 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A {@link Handler} that writes log records to a file on a background thread, so logging never waits on the disk.
+ * <p>
+ *     Published records are added to a bounded lock-free queue and the writer thread drains them in batches, writing
+ *     each batch with a single flush. If the queue is full, the {@link OverflowPolicy} decides whether the record is
+ *     dropped or the caller waits for space. Once the file reaches its size limit it is rotated: {@code name.log}
+ *     becomes {@code name.log.1}, {@code name.log.1} becomes {@code name.log.2}, and so on, keeping at most
+ *     {@code count} files.
+ * </p>
+ */
+public class AsyncFileHandler extends Handler {
+    /**
+     * Decides what happens to a record published while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** The record is discarded and counted by {@link #getDropped()}. */
+        DROP,
+
+        /** The caller waits until the writer thread has made space for the record. */
+        BLOCK
+    }
+
+    /** The maximum number of records written before the file is flushed. */
+    private static final int BATCH_SIZE = 256;
+
+    /** How long the writer thread sleeps when the queue is empty, in nanoseconds. */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /** How long a blocked caller waits before checking the queue again, in nanoseconds. */
+    private static final long BLOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** The records waiting to be written. */
+    private final ConcurrentLinkedQueue<LogRecord> queue;
+
+    /** The number of records in the {@code queue}, used to keep it bounded. */
+    private final AtomicInteger size;
+
+    /** The maximum number of records in the {@code queue}. */
+    private final int capacity;
+
+    /** What happens to a record published while the queue is full. */
+    private final OverflowPolicy policy;
+
+    /** The number of records dropped because the queue was full. */
+    private final AtomicLong dropped;
+
+    /** The number of records that have been written to the file. */
+    private final AtomicLong written;
+
+    /** The number of records that have been accepted into the queue. */
+    private final AtomicLong accepted;
+
+    /** The path of the current log file. Rotated files have a number appended. */
+    private final String path;
+
+    /** The size in bytes the file may reach before it is rotated. */
+    private final long limit;
+
+    /** The number of files kept, including the current file. */
+    private final int count;
+
+    /** The thread writing records to the file. */
+    private final Thread writer;
+
+    /** The stream of the current log file. Only used by the writer thread. */
+    private OutputStream out;
+
+    /** The number of bytes in the current log file. Only used by the writer thread. */
+    private long fileSize;
+
+    /** Specifies whether the handler has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Creates a new {@code AsyncFileHandler} that appends to the file at the given path and starts its writer thread.
+     * @param path the path of the log file.
+     * @param limit the size in bytes the file may reach before it is rotated. Must be positive.
+     * @param count the number of files kept, including the current file. Must be positive.
+     * @param capacity the maximum number of records waiting to be written. Must be positive.
+     * @param policy what happens to a record published while the queue is full.
+     * @throws IOException if the log file could not be opened.
+     * @throws IllegalArgumentException if {@code limit}, {@code count} or {@code capacity} is not positive, or
+     *                                  {@code path} or {@code policy} is null.
+     */
+    public AsyncFileHandler(String path, long limit, int count, int capacity, OverflowPolicy policy)
+            throws IOException {
+        if (path == null || policy == null || limit <= 0 || count <= 0 || capacity <= 0)
+            throw new IllegalArgumentException("path and policy must not be null and limit, count and capacity must "
+                    + "be positive");
+        this.path = path;
+        this.limit = limit;
+        this.count = count;
+        this.capacity = capacity;
+        this.policy = policy;
+        queue = new ConcurrentLinkedQueue<>();
+        size = new AtomicInteger();
+        dropped = new AtomicLong();
+        written = new AtomicLong();
+        accepted = new AtomicLong();
+        setFormatter(new SimpleFormatter());
+        open();
+        writer = new Thread(this::drain, "log-writer-" + new File(path).getName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Adds the record to the queue to be written by the writer thread. The caller is only delayed if the queue is
+     * full and the {@link OverflowPolicy} is {@code BLOCK}.
+     * @param record the record to log.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record))
+            return;
+        // infer the caller now, as it cannot be found from the writer thread
+        record.getSourceClassName();
+        while (true) {
+            int current = size.get();
+            if (current < capacity) {
+                if (size.compareAndSet(current, current + 1))
+                    break;
+            } else if (policy == OverflowPolicy.DROP || closed) {
+                dropped.incrementAndGet();
+                return;
+            } else {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(BLOCK_NANOS);
+            }
+        }
+        queue.offer(record);
+        accepted.incrementAndGet();
+        if (size.get() >= BATCH_SIZE)
+            LockSupport.unpark(writer);
+    }
+
+    /**
+     * Waits until every record accepted before this call has been written to the file.
+     */
+    @Override
+    public void flush() {
+        long target = accepted.get();
+        while (written.get() < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_NANOS);
+        }
+    }
+
+    /**
+     * Writes every queued record, stops the writer thread and closes the file. Records published afterwards are
+     * ignored.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of records dropped because the queue was full.
+     * @return the number of dropped records.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * The loop run by the writer thread. Writes records in batches until the handler is closed and the queue is empty.
+     */
+    private void drain() {
+        while (true) {
+            boolean wasClosed = closed;
+            int batch = 0;
+            LogRecord record;
+            while (batch < BATCH_SIZE && (record = queue.poll()) != null) {
+                size.decrementAndGet();
+                write(record);
+                batch++;
+            }
+            if (batch > 0) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    reportError("Failed to flush log file " + path, e, ErrorManager.FLUSH_FAILURE);
+                }
+                written.addAndGet(batch);
+            } else if (wasClosed) {
+                break;
+            } else {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError("Failed to close log file " + path, e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    /**
+     * Formats and writes a single record, rotating the file first if the record would take it over the limit.
+     * @param record the record to write.
+     */
+    private void write(LogRecord record) {
+        byte[] bytes;
+        try {
+            bytes = getFormatter().format(record).getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            reportError("Failed to format log record", e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        try {
+            if (fileSize > 0 && fileSize + bytes.length > limit)
+                rotate();
+            out.write(bytes);
+            fileSize += bytes.length;
+        } catch (IOException e) {
+            reportError("Failed to write log file " + path, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Closes the current file, shifts every rotated file up by one, discarding the oldest, and opens a new file.
+     * @throws IOException if the new file could not be opened.
+     */
+    private void rotate() throws IOException {
+        out.close();
+        for (int i = count - 1; i > 0; i--) {
+            File from = new File(i == 1 ? path : path + "." + (i - 1));
+            File to = new File(path + "." + i);
+            if (from.exists() && (!to.exists() || to.delete()))
+                from.renameTo(to);
+        }
+        if (count == 1)
+            new File(path).delete();
+        open();
+    }
+
+    /**
+     * Opens the current log file for appending.
+     * @throws IOException if the file could not be opened.
+     */
+    private void open() throws IOException {
+        File file = new File(path);
+        fileSize = file.length();
+        out = new BufferedOutputStream(new FileOutputStream(file, true));
+    }
+}
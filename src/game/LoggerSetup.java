@@ -1,28 +1,57 @@
 package game;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import java.util.logging.ConsoleHandler;
-import java.util.logging.SimpleFormatter;
-import java.util.logging.FileHandler;
 
 /**
  * Used to uniformly configure a logger that can be used by all classes.
+ * <p>
+ *     The minimum levels logged to the console and to the files can be set with the system properties
+ *     {@code snake.log.console} and {@code snake.log.file}, such as {@code java -Dsnake.log.file=INFO}, and changed
+ *     while the game is running with {@link #setLevels(Level, Level)}. Each logger is set to the lower of the two
+ *     levels, so messages that no handler will publish are discarded before a log record is created.
+ * </p>
+ * <p>
+ *     Files are written by an {@link AsyncFileHandler}, so logging does not block the game loop or the GUI on the
+ *     disk. If more records are logged than the disk can keep up with, they are dropped by default; set
+ *     {@code snake.log.overflow=BLOCK} to make callers wait instead.
+ * </p>
  */
 public class LoggerSetup {
     /** The path to the directory where the log file will be stored. */
     private final static String LOG_DIR = "src/resources/data/";
 
-    /** Minimum level that the config will log. */
-    private final static Level MIN_CONSOLE = Level.CONFIG;
+    /** Minimum level that the console will log. */
+    private static Level minConsole = levelProperty("snake.log.console", Level.CONFIG);
 
     /** Minimum level that the file will log. */
-    private final static Level MIN_FILE = Level.FINER;
+    private static Level minFile = levelProperty("snake.log.file", Level.FINER);
+
+    /** The size in bytes a log file may reach before it is rotated. */
+    private final static long FILE_LIMIT = 5L * 1024 * 1024;
+
+    /** The number of log files kept for each package, including the current file. */
+    private final static int FILE_COUNT = 3;
+
+    /** The maximum number of records waiting to be written to each log file. */
+    private final static int QUEUE_CAPACITY = 8192;
+
+    /** What happens to a record logged while the queue of its file is full. */
+    private final static AsyncFileHandler.OverflowPolicy OVERFLOW = overflowProperty();
+
+    /** The console handler shared by every logger. */
+    private final static ConsoleHandler consoleHandler = new ConsoleHandler();
 
     /** Holds all file handlers with the package name as the key. */
-    private final static HashMap<String, FileHandler> fileHandlers = new HashMap<>();
+    private final static HashMap<String, AsyncFileHandler> fileHandlers = new HashMap<>();
+
+    /** Holds every logger configured by {@link #getLogger(String)}, so their levels can be changed later. */
+    private final static List<Logger> loggers = new ArrayList<>();
 
     /**
      * This class is not instantiable as it is only used to set up a logger uniformly throughout the program.
@@ -30,13 +59,19 @@ public class LoggerSetup {
      */
     private LoggerSetup() {}
 
+    static {
+        consoleHandler.setLevel(minConsole);
+        // write out any queued records when the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(LoggerSetup::closeFileHandlers, "log-shutdown"));
+    }
+
     /**
-     * Returns a {@code FileHandler} for the given {@code packageName}. This allows for every package to have their own
-     * file handler allowing for each package to log to one file.
+     * Returns an {@code AsyncFileHandler} for the given {@code packageName}. This allows for every package to have
+     * their own file handler allowing for each package to log to one file.
      * @param packageName name of the package
-     * @return the {@code FileHandler} for the given package.
+     * @return the {@code AsyncFileHandler} for the given package.
      */
-    private static FileHandler getFileHandler(String packageName) {
+    private static AsyncFileHandler getFileHandler(String packageName) {
         // Check if the FileHandler for the package already exists
         if (!fileHandlers.containsKey(packageName)) {
             // Attempt to Configure and add a handler to log all minFile and above severity logs to a file with a
@@ -44,12 +79,11 @@ public class LoggerSetup {
             try {
                 // Construct the log file name based on the package name
                 String logFileName = LOG_DIR + packageName + "_logfile.log";
-                // this filehandler will use the file at 'logFileName' and will append to the file until it reaches size of
-                // Long.MAX_VALUE. it will then clear the current file and use it again as file count is set to 1. It will
-                // append because of the true.
-                FileHandler fileHandler = new FileHandler(logFileName, Long.MAX_VALUE, 1, true);
-                fileHandler.setFormatter(new SimpleFormatter());
-                fileHandler.setLevel(MIN_FILE);
+                // this filehandler will append to the file at 'logFileName' until it reaches FILE_LIMIT bytes. it
+                // will then rotate the file, keeping FILE_COUNT files in total.
+                AsyncFileHandler fileHandler = new AsyncFileHandler(logFileName, FILE_LIMIT, FILE_COUNT,
+                        QUEUE_CAPACITY, OVERFLOW);
+                fileHandler.setLevel(minFile);
                 fileHandlers.put(packageName, fileHandler);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to initialize file handler for package: " + packageName, e);
@@ -63,30 +97,104 @@ public class LoggerSetup {
      * {@code log_path} and log all messages at {@code minConsole} and above to the console. This allows the user to
      * view detailed logging when needed without filling up the console with unnecessary information.
      * <p>
-     *     The method configures a {@link ConsoleHandler} to handle console output and configures a {@link FileHandler}
-     *     to log all messages to a file using a {@link SimpleFormatter} to format the logs to be easily read.
+     *     The method adds the shared {@link ConsoleHandler} to handle console output and an {@link AsyncFileHandler}
+     *     to log all messages to a file in the background, formatted to be easily read.
      * </p>
      * @param name name of the logger
      * @return A configured {@code Logger} of the specified name.
      */
-    public static Logger getLogger(String name){
+    public static synchronized Logger getLogger(String name){
         String packageName = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : "default";
         Logger logger = Logger.getLogger(name);
 
         // Stops the logger from logging to console
         logger.setUseParentHandlers(false);
 
-        // Configure and add a handler to log all minConsole and above severity logs to console
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setLevel(MIN_CONSOLE);
+        // Add the handler logging all minConsole and above severity logs to console, unless the logger already has it
+        logger.removeHandler(consoleHandler);
         logger.addHandler(consoleHandler);
 
         // File handler configuration
-        FileHandler fileHandler = getFileHandler(packageName);
+        AsyncFileHandler fileHandler = getFileHandler(packageName);
+        logger.removeHandler(fileHandler);
         logger.addHandler(fileHandler);
 
-        // Allow the logger to capture everything; the logs will be sorted by the handlers
-        logger.setLevel(Level.ALL);
+        // Capture everything a handler will publish; the logs will be sorted by the handlers. Anything below this is
+        // discarded by the logger before a record is created.
+        logger.setLevel(lowest(minConsole, minFile));
+        if (!loggers.contains(logger))
+            loggers.add(logger);
         return logger;
     }
+
+    /**
+     * Changes the minimum levels logged to the console and to the files by every logger, including loggers that have
+     * already been configured. Raising the levels on a production run means messages below them cost nothing.
+     * @param console the minimum level logged to the console.
+     * @param file the minimum level logged to the files.
+     * @throws IllegalArgumentException if {@code console} or {@code file} is null.
+     */
+    public static synchronized void setLevels(Level console, Level file) {
+        if (console == null || file == null)
+            throw new IllegalArgumentException("Log levels must not be null");
+        minConsole = console;
+        minFile = file;
+        consoleHandler.setLevel(console);
+        for (AsyncFileHandler fileHandler : fileHandlers.values())
+            fileHandler.setLevel(file);
+        for (Logger logger : loggers)
+            logger.setLevel(lowest(console, file));
+    }
+
+    /**
+     * Writes out every queued record and closes the file handlers. Run when the program exits.
+     */
+    private static synchronized void closeFileHandlers() {
+        for (AsyncFileHandler fileHandler : fileHandlers.values())
+            fileHandler.close();
+    }
+
+    /**
+     * Gets the lower of two levels.
+     * @param a the first level.
+     * @param b the second level.
+     * @return whichever level logs more messages.
+     */
+    private static Level lowest(Level a, Level b) {
+        return a.intValue() < b.intValue() ? a : b;
+    }
+
+    /**
+     * Reads the {@link AsyncFileHandler.OverflowPolicy} from the system property {@code snake.log.overflow}.
+     * @return the policy of the property, or {@code DROP} if the property is not set or is not a valid policy.
+     */
+    private static AsyncFileHandler.OverflowPolicy overflowProperty() {
+        String value = System.getProperty("snake.log.overflow");
+        if (value == null)
+            return AsyncFileHandler.OverflowPolicy.DROP;
+        try {
+            return AsyncFileHandler.OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid log overflow policy: " + value + ". Using DROP.");
+            return AsyncFileHandler.OverflowPolicy.DROP;
+        }
+    }
+
+    /**
+     * Reads a level from a system property, such as {@code FINE} or {@code OFF}.
+     * @param key the name of the system property.
+     * @param def the level used if the property is not set or is not a valid level.
+     * @return the level of the property.
+     */
+    private static Level levelProperty(String key, Level def) {
+        String value = System.getProperty(key);
+        if (value == null)
+            return def;
+        try {
+            return Level.parse(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid log level for " + key + ": " + value + ". Using " + def + ".");
+            return def;
+        }
+    }
 }
@@ -0,0 +1,510 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An {@code Arena} is a headless game in which many snakes move at once on one shared grid, competing for many pieces
+ * of food. Snakes are identified by their index, from {@code 0} to {@link #snakeCount()} exclusive, and are steered
+ * with {@link #changeDirection(int, Direction)} between calls to {@link #step()}.
+ * <p>
+ *     Rather than checking every snake against every other, the arena keeps a single map from each packed cell (see
+ *     {@link Grid}) to what occupies it: nothing, food, the wall around the grid, or the snake whose body is there.
+ *     A head moving into a wall, its own body or another snake's body is found with one lookup. Two heads moving into
+ *     the same cell are found by stamping each cell a head moves into with the tick number, so the second head to
+ *     arrive sees the first. The living snakes are kept in a compact list that a tick walks instead of every snake, so
+ *     every tick takes time proportional to the number of living snakes, no matter how long they are or how many dead
+ *     snakes are waiting to be respawned.
+ * </p>
+ * <p>
+ *     All snakes move at the same time. The tail of every snake that is not eating moves before any collision is
+ *     checked, so a head may follow any tail, including another snake's, into the cell it just left. A snake dies if
+ *     its head moves into the wall or a body, and both snakes die if their heads move into the same cell. The body of
+ *     a snake that dies is removed from the grid. Eaten food is replaced straight away, so the arena always holds the
+ *     same amount of food while there is room for it.
+ * </p>
+ */
+public class Arena {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(Arena.class.getName());
+
+    /** The contents of a cell that is free. Cells occupied by a snake hold the index of the snake plus one. */
+    private static final int EMPTY = 0;
+
+    /** The contents of a cell on the border around the grid. */
+    private static final int WALL = -1;
+
+    /** The contents of a cell holding food. */
+    private static final int FOOD = -2;
+
+    /** The number of random positions tried when placing a snake before giving up. */
+    private static final int PLACEMENT_ATTEMPTS = 1000;
+
+    /** The directions in the order of their ordinals, used to pick a random direction for a new snake. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The grid the snakes move on. */
+    private final Grid grid;
+
+    /** What occupies each packed cell: {@code EMPTY}, {@code WALL}, {@code FOOD} or a snake's index plus one. */
+    private final int[] cells;
+
+    /** The cells inside the grid occupied by a snake or food, used to pick a random free cell in constant time. */
+    private final Occupancy occupancy;
+
+    /** The last tick a head moved into each packed cell, used to find heads moving into the same cell. */
+    private final int[] claimTicks;
+
+    /** The snake whose head moved into each packed cell on the tick in {@code claimTicks}. */
+    private final int[] claimants;
+
+    /** The number of cells a snake starts with. */
+    private final int initialLength;
+
+    /** The number of pieces of food kept in the arena. */
+    private final int foodTarget;
+
+    /** Used to place snakes and spawn food. */
+    private final Random rand;
+
+    /** The body of each snake as a circular buffer of packed cells, grown as the snake grows. */
+    private final int[][] bodies;
+
+    /** The index of the head of each snake within its body buffer. */
+    private final int[] heads;
+
+    /** The number of cells each snake occupies. */
+    private final int[] lengths;
+
+    /** The direction each snake is moving in. */
+    private final Direction[] directions;
+
+    /** The direction each snake will turn to on the next tick, or {@code null} to keep going straight. */
+    private final Direction[] nextDirections;
+
+    /** The number of pieces of food each snake has eaten. */
+    private final int[] scores;
+
+    /** Whether each snake is alive. */
+    private final boolean[] alive;
+
+    /** The indices of the living snakes in their first {@code aliveCount} entries, in no particular order. */
+    private final int[] living;
+
+    /** The position of each living snake in {@code living}. */
+    private final int[] livingSlots;
+
+    /** The cell each snake's head moves into on the current tick. */
+    private final int[] newHeads;
+
+    /** Whether each snake is eating on the current tick. */
+    private final boolean[] eating;
+
+    /** Whether each snake dies on the current tick. */
+    private final boolean[] dying;
+
+    /** The number of living snakes. */
+    private int aliveCount;
+
+    /** The number of pieces of food in the arena. */
+    private int foodCount;
+
+    /** The number of ticks played so far. */
+    private int ticks;
+
+    /**
+     * Creates an {@code Arena} and places every snake and piece of food at random on a grid of the size given by the
+     * {@code config}. Each snake starts in a straight line with the initial length given by the {@code config}, facing
+     * away from its body.
+     * @param config the settings of the arena, which determine the grid size and initial length of the snakes.
+     * @param snakes the number of snakes. Must be positive.
+     * @param food the number of pieces of food kept in the arena. Must not be negative.
+     * @param seed the seed of the random number generator used to place the snakes and spawn the food.
+     * @throws IllegalArgumentException if {@code config} is null, {@code snakes} is not positive, {@code food} is
+     *                                  negative, or there is not enough room on the grid for every snake.
+     */
+    public Arena(GameConfig config, int snakes, int food, long seed) {
+        if (config == null || snakes <= 0 || food < 0) {
+            LOGGER.severe("Invalid arena settings (snakes: " + snakes + ", food: " + food + ").");
+            throw new IllegalArgumentException("config must not be null, snakes must be positive and food must not be "
+                    + "negative");
+        }
+        grid = new Grid(config.numRows(), config.numCols());
+        cells = new int[grid.packedSize()];
+        Arrays.fill(cells, WALL);
+        for (int y = 0; y < grid.rows(); y++) {
+            for (int x = 0; x < grid.cols(); x++)
+                cells[grid.cell(x, y)] = EMPTY;
+        }
+        occupancy = new Occupancy(grid);
+        claimTicks = new int[grid.packedSize()];
+        claimants = new int[grid.packedSize()];
+        initialLength = config.snakeInitialLength();
+        foodTarget = food;
+        rand = new Random(seed);
+        bodies = new int[snakes][];
+        heads = new int[snakes];
+        lengths = new int[snakes];
+        directions = new Direction[snakes];
+        nextDirections = new Direction[snakes];
+        scores = new int[snakes];
+        alive = new boolean[snakes];
+        living = new int[snakes];
+        livingSlots = new int[snakes];
+        newHeads = new int[snakes];
+        eating = new boolean[snakes];
+        dying = new boolean[snakes];
+        aliveCount = 0;
+        foodCount = 0;
+        ticks = 0;
+        for (int i = 0; i < snakes; i++) {
+            if (!respawn(i)) {
+                LOGGER.severe("Not enough room to place " + snakes + " snakes on a " + grid.rows() + "x"
+                        + grid.cols() + " grid.");
+                throw new IllegalArgumentException("not enough room on the grid for " + snakes + " snakes");
+            }
+        }
+        spawnFood();
+        LOGGER.config("Arena created with " + snakes + " snakes and " + foodCount + " food on a " + grid.rows() + "x"
+                + grid.cols() + " grid.");
+    }
+
+    /**
+     * Advances every living snake by a single tick. Each snake turns if a direction was queued for it, then moves.
+     * Snakes that eat grow and score, snakes that collide die, and eaten food is replaced.
+     * @return the number of snakes that died on this tick.
+     */
+    public int step() {
+        ticks++;
+        int count = aliveCount;
+        // move every head and tail before checking collisions, as all snakes move at the same time
+        for (int k = 0; k < count; k++) {
+            int i = living[k];
+            if (nextDirections[i] != null) {
+                directions[i] = nextDirections[i];
+                nextDirections[i] = null;
+            }
+            int newHead = bodies[i][heads[i]] + delta(directions[i]);
+            newHeads[i] = newHead;
+            eating[i] = cells[newHead] == FOOD;
+            dying[i] = false;
+            if (!eating[i])
+                popTail(i);
+        }
+        // two heads moving into the same cell kill both snakes
+        for (int k = 0; k < count; k++) {
+            int i = living[k];
+            int newHead = newHeads[i];
+            if (claimTicks[newHead] == ticks) {
+                dying[i] = true;
+                dying[claimants[newHead]] = true;
+            } else {
+                claimTicks[newHead] = ticks;
+                claimants[newHead] = i;
+            }
+            // a head moving into the wall or any body, including its own, kills the snake
+            if (cells[newHead] == WALL || cells[newHead] > EMPTY)
+                dying[i] = true;
+        }
+        int died = 0;
+        // walked backwards, so a killed snake is replaced in the list by a snake that has already been visited
+        for (int k = count - 1; k >= 0; k--) {
+            int i = living[k];
+            if (dying[i]) {
+                kill(i);
+                died++;
+            } else {
+                pushHead(i, newHeads[i]);
+            }
+        }
+        spawnFood();
+        if (died > 0 && LOGGER.isLoggable(Level.FINE))
+            LOGGER.fine(died + " snakes died on tick " + ticks + ". " + aliveCount + " left.");
+        return died;
+    }
+
+    /**
+     * Queues a snake to turn on the next tick, unless the turn would reverse it onto its own body. A later call before
+     * the next tick replaces the queued direction.
+     * @param snake the index of the snake.
+     * @param direction the direction to attempt to change to.
+     * @throws IllegalArgumentException if {@code direction} is null.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public void changeDirection(int snake, Direction direction) {
+        if (direction == null) {
+            LOGGER.severe("direction passed into changeDirection was null.");
+            throw new IllegalArgumentException("direction must not be null");
+        }
+        if (delta(direction) + delta(directions[snake]) != 0)
+            nextDirections[snake] = direction;
+    }
+
+    /**
+     * Places a dead snake back on the grid at a random free position with its initial length and a score of
+     * {@code 0}. Nothing happens if the snake is alive.
+     * @param snake the index of the snake.
+     * @return true if the snake is alive, false if there was no room to place it.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public boolean respawn(int snake) {
+        if (alive[snake])
+            return true;
+        for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS && occupancy.freeCount() > 0; attempt++) {
+            int head = occupancy.freeCell(rand.nextInt(occupancy.freeCount()));
+            Direction direction = DIRECTIONS[rand.nextInt(DIRECTIONS.length)];
+            // the body trails straight back from the head, so every cell behind it must be free
+            int delta = delta(direction);
+            int cell = head;
+            int placed = 0;
+            while (placed < initialLength && cells[cell] == EMPTY) {
+                cell -= delta;
+                placed++;
+            }
+            if (placed < initialLength)
+                continue;
+            if (bodies[snake] == null || bodies[snake].length < initialLength)
+                bodies[snake] = new int[Math.max(initialLength, 16)];
+            heads[snake] = 0;
+            lengths[snake] = 0;
+            for (int i = initialLength - 1; i >= 0; i--)
+                pushHead(snake, head - i * delta);
+            directions[snake] = direction;
+            nextDirections[snake] = null;
+            scores[snake] = 0;
+            alive[snake] = true;
+            living[aliveCount] = snake;
+            livingSlots[snake] = aliveCount;
+            aliveCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves a snake's head into a cell, growing the snake by one cell. The body buffer is doubled when it is full.
+     * @param snake the index of the snake.
+     * @param cell the packed cell the head moves into.
+     */
+    private void pushHead(int snake, int cell) {
+        int[] body = bodies[snake];
+        int length = lengths[snake];
+        if (length == body.length) {
+            // unwrap the buffer into a larger one, with the head at the start
+            int[] grown = new int[body.length * 2];
+            int head = heads[snake];
+            System.arraycopy(body, head, grown, 0, body.length - head);
+            System.arraycopy(body, 0, grown, body.length - head, head);
+            bodies[snake] = body = grown;
+            heads[snake] = 0;
+        }
+        int head = heads[snake] == 0 ? body.length - 1 : heads[snake] - 1;
+        body[head] = cell;
+        heads[snake] = head;
+        lengths[snake] = length + 1;
+        if (cells[cell] == FOOD) {
+            foodCount--;
+            scores[snake]++;
+        } else {
+            occupancy.occupy(cell);
+        }
+        cells[cell] = snake + 1;
+    }
+
+    /**
+     * Removes the tail of a snake, shrinking it by one cell.
+     * @param snake the index of the snake.
+     */
+    private void popTail(int snake) {
+        int[] body = bodies[snake];
+        int tail = heads[snake] + lengths[snake] - 1;
+        int cell = body[tail >= body.length ? tail - body.length : tail];
+        lengths[snake]--;
+        cells[cell] = EMPTY;
+        occupancy.free(cell);
+    }
+
+    /**
+     * Kills a snake, removes its body from the grid, and removes it from the list of living snakes by moving the last
+     * living snake into its place.
+     * @param snake the index of the snake.
+     */
+    private void kill(int snake) {
+        while (lengths[snake] > 0)
+            popTail(snake);
+        alive[snake] = false;
+        aliveCount--;
+        int last = living[aliveCount];
+        living[livingSlots[snake]] = last;
+        livingSlots[last] = livingSlots[snake];
+    }
+
+    /**
+     * Spawns food on random free cells until the arena holds {@code foodTarget} pieces or the grid is full.
+     */
+    private void spawnFood() {
+        while (foodCount < foodTarget && !occupancy.isFull()) {
+            int cell = occupancy.freeCell(rand.nextInt(occupancy.freeCount()));
+            occupancy.occupy(cell);
+            cells[cell] = FOOD;
+            foodCount++;
+        }
+    }
+
+    /**
+     * Gets the offset to add to a packed cell index to move one cell in the given direction.
+     * @param direction the direction to move in.
+     * @return the offset of the neighbouring cell.
+     */
+    private int delta(Direction direction) {
+        return switch (direction) {
+            case UP -> -grid.stride();
+            case DOWN -> grid.stride();
+            case LEFT -> -1;
+            case RIGHT -> 1;
+        };
+    }
+
+    /**
+     * Gets the snake occupying a cell.
+     * @param cell the packed cell index.
+     * @return the index of the snake whose body is in the cell, or {@code -1} if no snake is there.
+     */
+    public int snakeAt(int cell) {
+        return cells[cell] > EMPTY ? cells[cell] - 1 : -1;
+    }
+
+    /**
+     * Returns {@code true} if a cell holds food.
+     * @param cell the packed cell index.
+     * @return true if there is food in the cell, false otherwise.
+     */
+    public boolean isFood(int cell) {
+        return cells[cell] == FOOD;
+    }
+
+    /**
+     * Returns {@code true} if a head can move into a cell without dying, ignoring the tails that move this tick and
+     * other heads moving into the same cell.
+     * @param cell the packed cell index.
+     * @return true if the cell is empty or holds food, false if it is the wall or part of a snake.
+     */
+    public boolean isFree(int cell) {
+        return cells[cell] == EMPTY || cells[cell] == FOOD;
+    }
+
+    /**
+     * Returns {@code true} if a snake is alive.
+     * @param snake the index of the snake.
+     * @return true if the snake is alive, false if it has died and not been respawned.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public boolean isAlive(int snake) {
+        return alive[snake];
+    }
+
+    /**
+     * Gets the number of cells a snake occupies.
+     * @param snake the index of the snake.
+     * @return the length of the snake, which is {@code 0} if it is dead.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public int length(int snake) {
+        return lengths[snake];
+    }
+
+    /**
+     * Gets the packed cell index of a segment of a snake's body.
+     * @param snake the index of the snake.
+     * @param index the index of the segment, where {@code 0} is the head.
+     * @return the packed cell index of the segment.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake, or {@code index} is negative
+     *                                   or not less than the length of the snake.
+     */
+    public int getCell(int snake, int index) {
+        if (index < 0 || index >= lengths[snake])
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + lengths[snake]);
+        int[] body = bodies[snake];
+        int i = heads[snake] + index;
+        return body[i >= body.length ? i - body.length : i];
+    }
+
+    /**
+     * Gets the packed cell index of the head of a snake.
+     * @param snake the index of the snake.
+     * @return the packed cell index of the head.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake, or the snake is dead.
+     */
+    public int getHeadCell(int snake) {
+        return getCell(snake, 0);
+    }
+
+    /**
+     * Gets the direction a snake is moving in.
+     * @param snake the index of the snake.
+     * @return the current direction of the snake.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public Direction getDirection(int snake) {
+        return directions[snake];
+    }
+
+    /**
+     * Gets the number of pieces of food a snake has eaten since it was last placed.
+     * @param snake the index of the snake.
+     * @return the score of the snake.
+     * @throws IndexOutOfBoundsException if {@code snake} is not the index of a snake.
+     */
+    public int getScore(int snake) {
+        return scores[snake];
+    }
+
+    /**
+     * Gets the number of snakes in the arena, living or dead.
+     * @return the number of snakes.
+     */
+    public int snakeCount() {
+        return bodies.length;
+    }
+
+    /**
+     * Gets the number of living snakes.
+     * @return the number of snakes that are alive.
+     */
+    public int aliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * Gets the number of pieces of food in the arena.
+     * @return the amount of food.
+     */
+    public int foodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Gets the number of ticks played so far.
+     * @return the number of ticks.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the {@code grid} the snakes move on.
+     * @return the grid of the arena.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,303 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Policy} that steers the snake along a shortest route to the food. If the food cannot be reached, or the
+ * first move towards it is not {@link GameEngine#isSafe(Direction) safe}, the snake follows its own tail instead, which
+ * keeps it alive until the body moves out of the way. If the tail cannot be
+ * reached either, the snake moves into any free neighbouring cell.
+ * <p>
+ *     Routes are found with an A* search over packed cells (see {@link Grid}), guided by the Manhattan distance to the
+ *     target and preferring cells closer to the target when routes are equally short, so on an open board the search
+ *     only visits the cells along the route. Every array the search uses is allocated once for the size of the grid
+ *     and reused on every tick. Rather than clearing them before each search, each cell is stamped with the number of
+ *     the search that last reached it, so entries left over from earlier searches are ignored and a decision does
+ *     not allocate or touch cells the search never reaches.
+ * </p>
+ * <p>
+ *     The body of the snake is treated as blocked, except for the tail, which moves out of the way as the head moves.
+ *     An autopilot keeps state between decisions, so each game needs its own.
+ * </p>
+ */
+public class Autopilot implements Policy {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(Autopilot.class.getName());
+
+    /** Returned by a search when the target cannot be reached. */
+    private static final int UNREACHABLE = -1;
+
+    /** The grid the arrays are sized for, or {@code null} if no decision has been made yet. */
+    private Grid grid;
+
+    /** The moves from a cell to each of its neighbours, ordered up, down, left, right. */
+    private int[] offsets;
+
+    /** Whether each packed cell is on the border around the grid. */
+    private boolean[] border;
+
+    /** The column of each packed cell, so the search does not have to divide to find it. */
+    private int[] columns;
+
+    /** The row of each packed cell. */
+    private int[] rows;
+
+    /** The number of moves from the head to each cell reached by the current search. */
+    private int[] distance;
+
+    /** The cell each cell was reached from by the current search. */
+    private int[] parent;
+
+    /** The search that last reached each cell. Entries of the other arrays are only valid for the current search. */
+    private int[] reached;
+
+    /** The search that last finished with each cell. */
+    private int[] closed;
+
+    /** The number of the current search. */
+    private int search;
+
+    /** The cells waiting to be visited, as a binary heap ordered by {@code keys}. */
+    private int[] heapCells;
+
+    /** The priority of each cell in the heap: the estimated route length, then the estimated distance left. */
+    private long[] heapKeys;
+
+    /** The number of cells in the heap. */
+    private int heapSize;
+
+    /**
+     * Creates an {@code Autopilot}. The arrays it searches with are allocated on the first decision.
+     */
+    public Autopilot() {
+        grid = null;
+    }
+
+    /**
+     * Decides the direction that moves the snake along a shortest route to the food, or towards its tail if the food
+     * cannot be reached or the route to it is not safe.
+     * @param engine the engine of the game being played.
+     * @return the direction to move in, or {@code null} if every neighbouring cell is blocked.
+     */
+    @Override
+    public Direction decide(GameEngine engine) {
+        Snake snake = engine.getSnake();
+        resize(snake.getGrid());
+        int head = snake.getHeadCell();
+        int tail = snake.getCell(snake.length() - 1);
+        int next = firstStep(snake, head, engine.getFood().getCell(), tail);
+        if (next != UNREACHABLE && !engine.isSafe(direction(next - head))) {
+            // eating would trap the snake, so it waits for the body to move out of the way
+            LOGGER.finest("Route to food unsafe.");
+            next = UNREACHABLE;
+        }
+        if (next == UNREACHABLE) {
+            // if the last search already finished with the tail, its route to the tail is known
+            next = closed[tail] == search ? stepTowards(head, tail) : firstStep(snake, head, tail, tail);
+            LOGGER.finest("Following tail.");
+        }
+        if (next == UNREACHABLE) {
+            for (int offset : offsets) {
+                if (!isBlocked(snake, head + offset, tail)) {
+                    next = head + offset;
+                    break;
+                }
+            }
+        }
+        if (next == UNREACHABLE) {
+            LOGGER.finest("No free cell next to the head.");
+            return null;
+        }
+        return direction(next - head);
+    }
+
+    /**
+     * Finds a shortest route from the head to a target and gets the first cell along it.
+     * @param snake the snake being steered.
+     * @param head the packed cell of the head.
+     * @param target the packed cell to find a route to.
+     * @param tail the packed cell of the tail, which is not blocked.
+     * @return the packed cell next to the head along the route, or {@code UNREACHABLE} if there is no route.
+     */
+    private int firstStep(Snake snake, int head, int target, int tail) {
+        if (target == head)
+            return UNREACHABLE;
+        if (++search == 0) {
+            // the stamps wrapped around, so stale stamps could match again
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            search = 1;
+        }
+        int targetX = columns[target];
+        int targetY = rows[target];
+        heapSize = 0;
+        reached[head] = search;
+        distance[head] = 0;
+        parent[head] = head;
+        push(head, heuristic(head, targetX, targetY), 0);
+        int visited = 0;
+        while (heapSize > 0) {
+            int cell = pop();
+            if (closed[cell] == search)
+                continue;
+            closed[cell] = search;
+            visited++;
+            if (cell == target) {
+                if (LOGGER.isLoggable(Level.FINEST))
+                    LOGGER.finest("Route of " + distance[cell] + " found after visiting " + visited + " cells.");
+                return stepTowards(head, cell);
+            }
+            int nextDistance = distance[cell] + 1;
+            for (int offset : offsets) {
+                int neighbour = cell + offset;
+                if (isBlocked(snake, neighbour, tail))
+                    continue;
+                if (reached[neighbour] == search && distance[neighbour] <= nextDistance)
+                    continue;
+                reached[neighbour] = search;
+                distance[neighbour] = nextDistance;
+                parent[neighbour] = cell;
+                int remaining = heuristic(neighbour, targetX, targetY);
+                push(neighbour, nextDistance + remaining, remaining);
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Walks back along the route the last search found to a cell, to the cell after the head.
+     * @param head the packed cell of the head.
+     * @param cell a packed cell the last search finished with.
+     * @return the packed cell next to the head along the route.
+     */
+    private int stepTowards(int head, int cell) {
+        while (parent[cell] != head)
+            cell = parent[cell];
+        return cell;
+    }
+
+    /**
+     * Returns {@code true} if the head cannot move into a cell.
+     * @param snake the snake being steered.
+     * @param cell the packed cell.
+     * @param tail the packed cell of the tail, which moves out of the way and so is not blocked.
+     * @return true if the cell is on the border or part of the body other than the tail, false otherwise.
+     */
+    private boolean isBlocked(Snake snake, int cell, int tail) {
+        return border[cell] || (cell != tail && snake.isOccupied(cell));
+    }
+
+    /**
+     * Gets the Manhattan distance from a cell to the target.
+     * @param cell the packed cell.
+     * @param targetX the column of the target.
+     * @param targetY the row of the target.
+     * @return the number of moves from the cell to the target if nothing is in the way.
+     */
+    private int heuristic(int cell, int targetX, int targetY) {
+        return Math.abs(columns[cell] - targetX) + Math.abs(rows[cell] - targetY);
+    }
+
+    /**
+     * Adds a cell to the heap.
+     * @param cell the packed cell.
+     * @param estimate the estimated length of the route through the cell.
+     * @param remaining the estimated distance from the cell to the target, used to break ties.
+     */
+    private void push(int cell, int estimate, int remaining) {
+        if (heapSize == heapCells.length) {
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        long key = (long) estimate << 32 | remaining;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= key)
+                break;
+            heapCells[i] = heapCells[up];
+            heapKeys[i] = heapKeys[up];
+            i = up;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+    }
+
+    /**
+     * Removes the cell with the lowest priority from the heap.
+     * @return the packed cell.
+     */
+    private int pop() {
+        int top = heapCells[0];
+        int cell = heapCells[--heapSize];
+        long key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int down = 2 * i + 1;
+            if (down >= heapSize)
+                break;
+            if (down + 1 < heapSize && heapKeys[down + 1] < heapKeys[down])
+                down++;
+            if (key <= heapKeys[down])
+                break;
+            heapCells[i] = heapCells[down];
+            heapKeys[i] = heapKeys[down];
+            i = down;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+        return top;
+    }
+
+    /**
+     * Allocates the arrays for a grid, unless they were already allocated for a grid of the same size.
+     * @param grid the grid of the current game.
+     */
+    private void resize(Grid grid) {
+        if (this.grid != null && this.grid.rows() == grid.rows() && this.grid.cols() == grid.cols())
+            return;
+        int size = grid.packedSize();
+        int stride = grid.stride();
+        offsets = new int[] {-stride, stride, -1, 1};
+        border = new boolean[size];
+        columns = new int[size];
+        rows = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            columns[cell] = grid.x(cell);
+            rows[cell] = grid.y(cell);
+            border[cell] = !grid.inBounds(columns[cell], rows[cell]);
+        }
+        distance = new int[size];
+        parent = new int[size];
+        reached = new int[size];
+        closed = new int[size];
+        search = 0;
+        heapCells = new int[Math.max(16, grid.rows() + grid.cols())];
+        heapKeys = new long[heapCells.length];
+        this.grid = grid;
+        LOGGER.fine("Autopilot sized for a " + grid.rows() + "x" + grid.cols() + " grid.");
+    }
+
+    /**
+     * Gets the direction of a move to a neighbouring cell.
+     * @param delta the packed cell moved to minus the packed cell moved from.
+     * @return the direction of the move.
+     */
+    private Direction direction(int delta) {
+        if (delta == offsets[0])
+            return Direction.UP;
+        if (delta == offsets[1])
+            return Direction.DOWN;
+        if (delta == -1)
+            return Direction.LEFT;
+        return Direction.RIGHT;
+    }
+}
@@ -0,0 +1,511 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@code BatchEnvironment} plays many headless games in lockstep, advancing every game by one tick with a single call
+ * to {@link #step(int[])}, such as to train a bot by reinforcement learning. Games are identified by their index, from
+ * {@code 0} to {@link #games()} exclusive.
+ * <p>
+ *     Every game follows exactly the rules of a {@link GameEngine}: the snake moves and turns like a {@link Snake},
+ *     collides like the {@link game.utils.CollisionDetector}, and food is spawned like {@link Food#spawn()}, drawing
+ *     from the free cells in the same order with the same random number generator. A game started with a seed plays
+ *     out identically to a {@code GameEngine} started with the same settings and seed and given the same inputs.
+ * </p>
+ * <p>
+ *     Rather than an object per game, the state of every game is held in flat primitive arrays: one entry per game for
+ *     values such as the head, direction, length and food, and one slice per game for the body, free cell set and
+ *     random number generator state. Each tick first turns every snake and finds the cell its head moves into in a
+ *     single branch-free loop over the per-game arrays, which the JIT can unroll and vectorize, and then moves each
+ *     snake, which reads and writes its own slices. Stepping does not allocate.
+ * </p>
+ * <p>
+ *     When a game ends, its final state is kept until the next call to {@link #step(int[])}, which starts a new game
+ *     in its place instead of moving it. Games are seeded with {@code seed}, {@code seed + 1}, and so on, in the
+ *     order they are started.
+ * </p>
+ */
+public class BatchEnvironment {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(BatchEnvironment.class.getName());
+
+    /** The action that keeps a snake moving in its current direction. Any value that is not a direction ordinal. */
+    public static final int NO_ACTION = -1;
+
+    /** The multiplier of the linear congruential generator used by {@link java.util.Random}. */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+    /** The increment of the linear congruential generator used by {@link java.util.Random}. */
+    private static final long ADDEND = 0xBL;
+
+    /** The mask keeping the 48 bits of state of the linear congruential generator used by {@link java.util.Random}. */
+    private static final long MASK = (1L << 48) - 1;
+
+    /** The outcomes in the order of their ordinals. */
+    private static final TickOutcome[] OUTCOMES = TickOutcome.values();
+
+    /** The directions in the order of their ordinals. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The settings every game is started with. */
+    private final GameConfig config;
+
+    /** The grid every game is played on. */
+    private final Grid grid;
+
+    /** The number of slots in the body buffer of each game, which is enough for a snake filling the grid. */
+    private final int capacity;
+
+    /** The number of playable cells in the grid, which is the size of the free cell set of each game. */
+    private final int area;
+
+    /** The number of packed cells in the grid, including the border. */
+    private final int packedSize;
+
+    /** The packed cell of the head of each snake. */
+    private final int[] headCells;
+
+    /** The ordinal of the direction each snake is moving in. */
+    private final int[] directions;
+
+    /** The cell the head of each snake moves into on the current tick. */
+    private final int[] nextHeads;
+
+    /** The index of the head of each snake within its slice of {@code bodies}. */
+    private final int[] heads;
+
+    /** The number of cells each snake occupies. */
+    private final int[] lengths;
+
+    /** The packed cell of the food of each game. */
+    private final int[] foods;
+
+    /** The score of each game. */
+    private final int[] scores;
+
+    /** The number of ticks each game has been played for. */
+    private final int[] ticks;
+
+    /** The ordinal of the {@link TickOutcome} of the last tick of each game. */
+    private final byte[] outcomes;
+
+    /** The seed each game was started with. */
+    private final long[] seeds;
+
+    /** The state of the random number generator of each game, which behaves exactly like a {@link java.util.Random}. */
+    private final long[] rngs;
+
+    /** The number of free cells in each game. */
+    private final int[] freeCounts;
+
+    /**
+     * The body of each snake as a circular buffer of packed cells, laid out like the body of a {@link Snake}. The
+     * buffer of game {@code i} starts at index {@code i * capacity}.
+     */
+    private final int[] bodies;
+
+    /**
+     * The free cells of each game, kept in the same order as the {@link Occupancy} of a {@link Snake}. The set of game
+     * {@code i} starts at index {@code i * area}, and only its first {@code freeCounts[i]} entries are used.
+     */
+    private final int[] freeCells;
+
+    /**
+     * Maps each packed cell of each game to its index in the free cell set of the game, or {@code -1} if it is not
+     * free. The map of game {@code i} starts at index {@code i * packedSize}.
+     */
+    private final int[] freeIndices;
+
+    /** The body every snake starts with. */
+    private final int[] initialBody;
+
+    /** The free cells every game starts with. */
+    private final int[] initialFreeCells;
+
+    /** The index of each packed cell in {@code initialFreeCells}, or {@code -1} if it is not free. */
+    private final int[] initialFreeIndices;
+
+    /** The packed cell of the first food of every game. */
+    private final int initialFood;
+
+    /** The seed of the next game started. */
+    private long nextSeed;
+
+    /**
+     * Creates a {@code BatchEnvironment} and starts every game.
+     * @param config the settings every game is started with.
+     * @param games the number of games played at once. Must be positive.
+     * @param seed the seed of the first game.
+     * @throws IllegalArgumentException if {@code config} is null, {@code games} is not positive, or the games do not
+     *                                  fit in arrays.
+     */
+    public BatchEnvironment(GameConfig config, int games, long seed) {
+        if (config == null || games <= 0) {
+            LOGGER.severe("Invalid batch environment settings (games: " + games + ").");
+            throw new IllegalArgumentException("config must not be null and games must be positive");
+        }
+        grid = new Grid(config.numRows(), config.numCols());
+        area = grid.area();
+        capacity = area + 1;
+        packedSize = grid.packedSize();
+        if ((long) games * packedSize > Integer.MAX_VALUE) {
+            LOGGER.severe("Too many games for a " + grid.rows() + "x" + grid.cols() + " grid (games: " + games + ").");
+            throw new IllegalArgumentException("games do not fit in arrays");
+        }
+        this.config = config;
+        headCells = new int[games];
+        directions = new int[games];
+        nextHeads = new int[games];
+        heads = new int[games];
+        lengths = new int[games];
+        foods = new int[games];
+        scores = new int[games];
+        ticks = new int[games];
+        outcomes = new byte[games];
+        seeds = new long[games];
+        rngs = new long[games];
+        freeCounts = new int[games];
+        bodies = new int[games * capacity];
+        freeCells = new int[games * area];
+        freeIndices = new int[games * packedSize];
+
+        // take the starting state from a real snake, so the free cells start in exactly the same order
+        Snake snake = new Snake(config);
+        Occupancy occupancy = snake.getOccupancy();
+        initialBody = new int[snake.length()];
+        for (int i = 0; i < initialBody.length; i++)
+            initialBody[i] = snake.getCell(i);
+        initialFreeCells = new int[occupancy.freeCount()];
+        initialFreeIndices = new int[packedSize];
+        Arrays.fill(initialFreeIndices, -1);
+        for (int i = 0; i < initialFreeCells.length; i++) {
+            initialFreeCells[i] = occupancy.freeCell(i);
+            initialFreeIndices[initialFreeCells[i]] = i;
+        }
+        initialFood = grid.cell(config.foodInitialPosition().x, config.foodInitialPosition().y);
+
+        nextSeed = seed;
+        for (int i = 0; i < games; i++)
+            reset(i);
+        LOGGER.config("Batch environment of " + games + " games created.");
+    }
+
+    /**
+     * Advances every game by one tick. Each snake first turns to the direction given by its action, unless that would
+     * turn it back on itself, exactly as if the direction were passed to {@link GameEngine#step(Direction)}. A game
+     * that ended on the previous tick is started again instead, and its action is ignored.
+     * @param actions the action of each game: the ordinal of the {@link Direction} to turn to, or any other value,
+     *                such as {@link #NO_ACTION}, to keep going straight.
+     * @return the number of games that ended on this tick.
+     * @throws IllegalArgumentException if {@code actions} is null or does not have an action for every game.
+     */
+    public int step(int[] actions) {
+        if (actions == null || actions.length != headCells.length) {
+            LOGGER.severe("actions passed into step did not match the " + headCells.length + " games.");
+            throw new IllegalArgumentException("actions must have one action for every game");
+        }
+        int stride = grid.stride();
+        for (int i = 0; i < actions.length; i++) {
+            int action = actions[i];
+            int direction = directions[i];
+            // the opposite of a direction differs only in its lowest bit, and any action outside 0 to 3 is ignored
+            direction = (action & ~3) == 0 && action != (direction ^ 1) ? action : direction;
+            directions[i] = direction;
+            // UP and LEFT move back one row or column, while DOWN and RIGHT move forward
+            nextHeads[i] = headCells[i] + (direction < 2 ? stride : 1) * ((direction & 1) * 2 - 1);
+        }
+        int ended = 0;
+        for (int i = 0; i < actions.length; i++) {
+            if (hasEnded(i)) {
+                reset(i);
+                continue;
+            }
+            TickOutcome outcome = move(i, nextHeads[i]);
+            outcomes[i] = (byte) outcome.ordinal();
+            if (outcome == TickOutcome.COLLIDED || outcome == TickOutcome.WON)
+                ended++;
+        }
+        if (ended > 0 && LOGGER.isLoggable(Level.FINER))
+            LOGGER.finer(ended + " games ended.");
+        return ended;
+    }
+
+    /**
+     * Moves the head of a snake into a cell, checking for food before collisions like a {@link GameEngine}. On a
+     * collision the snake is left where it was, as a {@code GameEngine} moves it back when the game ends.
+     * @param game the index of the game.
+     * @param next the packed cell the head moves into.
+     * @return the outcome of the tick.
+     */
+    private TickOutcome move(int game, int next) {
+        ticks[game]++;
+        int body = game * capacity;
+        int head = heads[game];
+        int length = lengths[game];
+        int tail = bodies[body + wrap(head + length - 1)];
+        boolean eating = next == foods[game];
+        // the border is never free, so this finds the wall as well as the body, apart from the tail moving away
+        if (!eating && next != tail && freeIndices[game * packedSize + next] < 0)
+            return TickOutcome.COLLIDED;
+        head = wrap(head - 1);
+        bodies[body + head] = next;
+        heads[game] = head;
+        headCells[game] = next;
+        // Snake.move frees the tail before occupying the head, and growing occupies the tail again, which changes
+        // the order of the free cells
+        free(game, tail);
+        occupy(game, next);
+        if (!eating)
+            return TickOutcome.MOVED;
+        occupy(game, tail);
+        lengths[game] = length + 1;
+        scores[game]++;
+        int free = freeCounts[game];
+        if (free == 0)
+            return TickOutcome.WON;
+        foods[game] = freeCells[game * area + nextInt(game, free)];
+        return TickOutcome.ATE;
+    }
+
+    /**
+     * Adds a cell to the end of the free cell set of a game, like {@link Occupancy#free(int)}.
+     * @param game the index of the game.
+     * @param cell the packed cell inside the grid, which must not be free.
+     */
+    private void free(int game, int cell) {
+        int count = freeCounts[game]++;
+        freeIndices[game * packedSize + cell] = count;
+        freeCells[game * area + count] = cell;
+    }
+
+    /**
+     * Removes a cell from the free cell set of a game by moving the last free cell into its slot, like
+     * {@link Occupancy#occupy(int)}.
+     * @param game the index of the game.
+     * @param cell the packed cell inside the grid, which must be free.
+     */
+    private void occupy(int game, int cell) {
+        int cells = game * area;
+        int indices = game * packedSize;
+        int index = freeIndices[indices + cell];
+        int last = freeCells[cells + --freeCounts[game]];
+        freeCells[cells + index] = last;
+        freeIndices[indices + last] = index;
+        freeIndices[indices + cell] = -1;
+    }
+
+    /**
+     * Draws a random number from the random number generator of a game, exactly like
+     * {@link java.util.Random#nextInt(int)}.
+     * @param game the index of the game.
+     * @param bound the upper bound of the number. Must be positive.
+     * @return a random number from {@code 0} to {@code bound} exclusive.
+     */
+    private int nextInt(int game, int bound) {
+        int r = next31(game);
+        int m = bound - 1;
+        if ((bound & m) == 0)
+            return (int) ((bound * (long) r) >> 31);
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31(game))
+            ;
+        return r;
+    }
+
+    /**
+     * Advances the random number generator of a game and gets its next 31 random bits, like
+     * {@code java.util.Random.next(31)}.
+     * @param game the index of the game.
+     * @return the random bits.
+     */
+    private int next31(int game) {
+        long state = (rngs[game] * MULTIPLIER + ADDEND) & MASK;
+        rngs[game] = state;
+        return (int) (state >>> (48 - 31));
+    }
+
+    /**
+     * Starts a new game in the place of a game, with the next seed.
+     * @param game the index of the game.
+     */
+    private void reset(int game) {
+        long seed = nextSeed++;
+        seeds[game] = seed;
+        // seeded like new Random(seed)
+        rngs[game] = (seed ^ MULTIPLIER) & MASK;
+        System.arraycopy(initialBody, 0, bodies, game * capacity, initialBody.length);
+        System.arraycopy(initialFreeCells, 0, freeCells, game * area, initialFreeCells.length);
+        System.arraycopy(initialFreeIndices, 0, freeIndices, game * packedSize, packedSize);
+        freeCounts[game] = initialFreeCells.length;
+        heads[game] = 0;
+        lengths[game] = initialBody.length;
+        headCells[game] = initialBody[0];
+        directions[game] = Direction.RIGHT.ordinal();
+        foods[game] = initialFood;
+        scores[game] = 0;
+        ticks[game] = 0;
+        outcomes[game] = (byte) TickOutcome.IDLE.ordinal();
+    }
+
+    /**
+     * Wraps an index into the bounds of a body buffer.
+     * @param index an index at most one buffer length out of bounds.
+     * @return the equivalent index within the buffer.
+     */
+    private int wrap(int index) {
+        if (index < 0)
+            return index + capacity;
+        if (index >= capacity)
+            return index - capacity;
+        return index;
+    }
+
+    /**
+     * Returns {@code true} if a game ended on the last tick, in which case it is started again on the next tick.
+     * @param game the index of the game.
+     * @return true if the game has ended, false otherwise.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public boolean hasEnded(int game) {
+        return outcomes[game] == TickOutcome.COLLIDED.ordinal() || outcomes[game] == TickOutcome.WON.ordinal();
+    }
+
+    /**
+     * Gets what happened to a game on the last tick.
+     * @param game the index of the game.
+     * @return the outcome of the last tick, which is {@link TickOutcome#IDLE} if the game was started on it.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public TickOutcome getOutcome(int game) {
+        return OUTCOMES[outcomes[game]];
+    }
+
+    /**
+     * Gets the number of cells a snake occupies.
+     * @param game the index of the game.
+     * @return the length of the snake.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public int length(int game) {
+        return lengths[game];
+    }
+
+    /**
+     * Gets the packed cell index of a segment of a snake's body.
+     * @param game the index of the game.
+     * @param index the index of the segment, where {@code 0} is the head.
+     * @return the packed cell index of the segment.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game, or {@code index} is negative or
+     *                                   not less than the length of the snake.
+     */
+    public int getCell(int game, int index) {
+        if (index < 0 || index >= lengths[game])
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + lengths[game]);
+        return bodies[game * capacity + wrap(heads[game] + index)];
+    }
+
+    /**
+     * Gets the packed cell index of the head of a snake.
+     * @param game the index of the game.
+     * @return the packed cell index of the head.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public int getHeadCell(int game) {
+        return headCells[game];
+    }
+
+    /**
+     * Gets the direction a snake is moving in.
+     * @param game the index of the game.
+     * @return the current direction of the snake.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public Direction getDirection(int game) {
+        return DIRECTIONS[directions[game]];
+    }
+
+    /**
+     * Gets the packed cell index of the food of a game.
+     * @param game the index of the game.
+     * @return the packed cell index of the food.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public int getFoodCell(int game) {
+        return foods[game];
+    }
+
+    /**
+     * Returns {@code true} if a cell of a game is inside the grid and is not part of the snake.
+     * @param game the index of the game.
+     * @param cell the packed cell index.
+     * @return true if the cell is free, false otherwise.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public boolean isFree(int game, int cell) {
+        if (game < 0 || game >= headCells.length)
+            throw new IndexOutOfBoundsException("Index " + game + " out of bounds for " + headCells.length + " games");
+        return freeIndices[game * packedSize + cell] >= 0;
+    }
+
+    /**
+     * Gets the number of pieces of food eaten in a game.
+     * @param game the index of the game.
+     * @return the score of the game.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public int getScore(int game) {
+        return scores[game];
+    }
+
+    /**
+     * Gets the number of ticks a game has been played for.
+     * @param game the index of the game.
+     * @return the number of ticks.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public int getTicks(int game) {
+        return ticks[game];
+    }
+
+    /**
+     * Gets the seed a game was started with, which reproduces the game in a {@link GameEngine}.
+     * @param game the index of the game.
+     * @return the seed of the game.
+     * @throws IndexOutOfBoundsException if {@code game} is not the index of a game.
+     */
+    public long getSeed(int game) {
+        return seeds[game];
+    }
+
+    /**
+     * Gets the number of games played at once.
+     * @return the number of games.
+     */
+    public int games() {
+        return headCells.length;
+    }
+
+    /**
+     * Gets the settings every game is started with.
+     * @return the settings of the games.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the {@code grid} every game is played on.
+     * @return the grid of the games.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,69 @@
+package game.core;
+
+/**
+ * A record describing the aggregate results of many games played by the {@link BatchSimulator}. Results of separate
+ * batches can be merged with {@link #combine(BatchResult)}, so games can be aggregated in any order.
+ *
+ * @param games the number of games played
+ * @param wins the number of games where the snake filled the whole grid
+ * @param unfinished the number of games stopped after the maximum number of ticks
+ * @param totalScore the sum of the scores of every game
+ * @param minScore the lowest score of any game, or {@link Integer#MAX_VALUE} if no games were played
+ * @param maxScore the highest score of any game, or {@code 0} if no games were played
+ * @param totalLength the sum of the final lengths of the snake in every game
+ * @param maxLength the longest final length of the snake in any game
+ * @param totalTicks the sum of the number of ticks every game was played for
+ * @param maxTicks the most ticks any game was played for
+ */
+public record BatchResult(int games, int wins, int unfinished, long totalScore, int minScore, int maxScore,
+                          long totalLength, int maxLength, long totalTicks, int maxTicks) {
+    /** The result of playing no games. Combining it with another result returns an equal result. */
+    public static final BatchResult EMPTY = new BatchResult(0, 0, 0, 0, Integer.MAX_VALUE, 0, 0, 0, 0, 0);
+
+    /**
+     * Creates a {@code BatchResult} for a single game.
+     * @param result the result of the game.
+     * @return the new {@code BatchResult}.
+     */
+    public static BatchResult of(GameResult result) {
+        return new BatchResult(1, result.outcome() == TickOutcome.WON ? 1 : 0, result.finished() ? 0 : 1,
+                result.score(), result.score(), result.score(), result.length(), result.length(), result.ticks(),
+                result.ticks());
+    }
+
+    /**
+     * Merges this result with the result of another batch of games.
+     * @param other the result to merge with.
+     * @return a new {@code BatchResult} covering the games of both results.
+     */
+    public BatchResult combine(BatchResult other) {
+        return new BatchResult(games + other.games, wins + other.wins, unfinished + other.unfinished,
+                totalScore + other.totalScore, Math.min(minScore, other.minScore), Math.max(maxScore, other.maxScore),
+                totalLength + other.totalLength, Math.max(maxLength, other.maxLength), totalTicks + other.totalTicks,
+                Math.max(maxTicks, other.maxTicks));
+    }
+
+    /**
+     * Gets the mean score of the games played.
+     * @return the mean score, or {@code 0} if no games were played.
+     */
+    public double meanScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    /**
+     * Gets the mean final length of the snake in the games played.
+     * @return the mean length, or {@code 0} if no games were played.
+     */
+    public double meanLength() {
+        return games == 0 ? 0 : (double) totalLength / games;
+    }
+
+    /**
+     * Gets the mean number of ticks the games were played for.
+     * @return the mean number of ticks, or {@code 0} if no games were played.
+     */
+    public double meanTicks() {
+        return games == 0 ? 0 : (double) totalTicks / games;
+    }
+}
@@ -0,0 +1,182 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.GameConfig;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+
+/**
+ * The {@code BatchSimulator} plays many independent headless games in parallel, such as to evaluate a bot
+ * {@link Policy}. Each game is driven by its own {@link GameEngine} with a {@link ManualClock}, so games share no
+ * state and run as fast as the policy allows.
+ * <p>
+ *     The games are split between the threads of a {@link ForkJoinPool}, and the results of each game are merged
+ *     into a {@link BatchResult}. Every game is started with its own seed, which is used both to spawn the food and to
+ *     create the policy for the game, so any game of a batch can be reproduced by playing its seed again.
+ * </p>
+ * <p>
+ *     Each game logs its lifecycle at {@code FINE}. Raise the levels with {@link LoggerSetup#setLevels} before a
+ *     large batch, so the threads do not spend their time creating records for each game and queueing them for the
+ *     shared handlers.
+ * </p>
+ */
+public class BatchSimulator {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(BatchSimulator.class.getName());
+
+    /**
+     * The settings every game is started with.
+     */
+    private final GameConfig config;
+
+    /**
+     * Creates the policy for a game from the seed of the game. A new policy is created for every game so policies
+     * may keep state between ticks.
+     */
+    private final LongFunction<Policy> policies;
+
+    /**
+     * The maximum number of ticks a game is played for before it is stopped.
+     */
+    private final int maxTicks;
+
+    /**
+     * The pool the games are played on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a {@code BatchSimulator} that plays its games on the common {@link ForkJoinPool}, using every core.
+     * @param config the settings every game is started with.
+     * @param policies creates the policy for a game from the seed of the game.
+     * @param maxTicks the maximum number of ticks a game is played for before it is stopped. Must be positive.
+     * @throws IllegalArgumentException if {@code config} or {@code policies} is null, or {@code maxTicks} is not
+     *                                  positive.
+     */
+    public BatchSimulator(GameConfig config, LongFunction<Policy> policies, int maxTicks) {
+        this(config, policies, maxTicks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a {@code BatchSimulator} that plays its games on the given {@code pool}.
+     * @param config the settings every game is started with.
+     * @param policies creates the policy for a game from the seed of the game.
+     * @param maxTicks the maximum number of ticks a game is played for before it is stopped. Must be positive.
+     * @param pool the pool the games are played on.
+     * @throws IllegalArgumentException if {@code config}, {@code policies} or {@code pool} is null, or
+     *                                  {@code maxTicks} is not positive.
+     */
+    public BatchSimulator(GameConfig config, LongFunction<Policy> policies, int maxTicks, ForkJoinPool pool) {
+        if (config == null || policies == null || pool == null || maxTicks <= 0) {
+            LOGGER.severe("Invalid batch simulator settings (max ticks: " + maxTicks + ").");
+            throw new IllegalArgumentException("config, policies and pool must not be null and maxTicks must be "
+                    + "positive");
+        }
+        this.config = config;
+        this.policies = policies;
+        this.maxTicks = maxTicks;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays the given number of games in parallel, seeding them with {@code seed}, {@code seed + 1}, and so on.
+     * @param games the number of games to play. Must not be negative.
+     * @param seed the seed of the first game.
+     * @return the aggregate results of the games.
+     * @throws IllegalArgumentException if {@code games} is negative.
+     */
+    public BatchResult run(int games, long seed) {
+        if (games < 0)
+            throw new IllegalArgumentException("games must not be negative");
+        long[] seeds = new long[games];
+        for (int i = 0; i < games; i++)
+            seeds[i] = seed + i;
+        return run(seeds);
+    }
+
+    /**
+     * Plays one game for each of the given seeds in parallel.
+     * @param seeds the seed of each game.
+     * @return the aggregate results of the games.
+     */
+    public BatchResult run(long[] seeds) {
+        BatchResult result = pool.invoke(new Batch(this, seeds, 0, seeds.length));
+        LOGGER.info("Played " + result.games() + " games. Mean score " + result.meanScore() + ".");
+        return result;
+    }
+
+    /**
+     * Plays a single game on the calling thread until it ends or reaches the maximum number of ticks.
+     * @param seed the seed of the game.
+     * @return the result of the game.
+     */
+    public GameResult play(long seed) {
+        GameEngine engine = new GameEngine();
+        engine.startGame(config, seed);
+        Policy policy = policies.apply(seed);
+        TickOutcome outcome = TickOutcome.IDLE;
+        int ticks = 0;
+        while (!engine.hasEnded() && ticks < maxTicks) {
+            outcome = engine.step(policy.decide(engine));
+            ticks++;
+        }
+        return new GameResult(seed, engine.getScore(), engine.getSnake().length(), ticks, outcome);
+    }
+
+    /**
+     * Plays the games for a range of seeds, splitting the range in half until each task plays a single game.
+     */
+    private static final class Batch extends RecursiveTask<BatchResult> {
+        /** Version of the serialized form, which is never used as tasks are not serialized. */
+        private static final long serialVersionUID = 1L;
+
+        /** The simulator that plays each game. */
+        private final transient BatchSimulator simulator;
+
+        /** The seed of each game. */
+        private final long[] seeds;
+
+        /** The index of the first seed in the range. */
+        private final int from;
+
+        /** The index after the last seed in the range. */
+        private final int to;
+
+        /**
+         * Creates a task for the seeds from index {@code from} inclusive to {@code to} exclusive.
+         * @param simulator the simulator that plays each game.
+         * @param seeds the seed of each game.
+         * @param from the index of the first seed in the range.
+         * @param to the index after the last seed in the range.
+         */
+        Batch(BatchSimulator simulator, long[] seeds, int from, int to) {
+            this.simulator = simulator;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the games in the range and merges their results.
+         * @return the aggregate results of the games in the range.
+         */
+        @Override
+        protected BatchResult compute() {
+            if (to - from == 0)
+                return BatchResult.EMPTY;
+            if (to - from == 1)
+                return BatchResult.of(simulator.play(seeds[from]));
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(simulator, seeds, from, mid);
+            left.fork();
+            BatchResult right = new Batch(simulator, seeds, mid, to).compute();
+            return left.join().combine(right);
+        }
+    }
+}
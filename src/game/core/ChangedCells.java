@@ -0,0 +1,95 @@
+package game.core;
+
+/**
+ * The packed cells whose contents have changed since the set was last cleared, so a renderer only needs to redraw
+ * those cells instead of the whole grid.
+ * <p>
+ *     The {@link GameEngine} adds the cells the head and tail of the snake moved from and to on every tick, along with
+ *     the cell new food spawned in. When every cell may have changed, such as when a game starts or ends, the set is
+ *     marked as {@link #isAll() all} instead. The set never grows, so adding a cell does not allocate; if more cells
+ *     change than it can hold before it is cleared, it is marked as all.
+ * </p>
+ */
+public final class ChangedCells {
+    /** The maximum number of cells held before the set is marked as all. */
+    private static final int CAPACITY = 16;
+
+    /** The changed cells. Only the first {@code size} are used. */
+    private final int[] cells;
+
+    /** The number of changed cells. */
+    private int size;
+
+    /** Specifies whether every cell may have changed. */
+    private boolean all;
+
+    /**
+     * Creates a set in which every cell is marked as changed, as nothing has been drawn yet.
+     */
+    ChangedCells() {
+        cells = new int[CAPACITY];
+        size = 0;
+        all = true;
+    }
+
+    /**
+     * Adds a changed cell, unless it has already been added.
+     * @param cell the packed cell index.
+     */
+    void add(int cell) {
+        if (all)
+            return;
+        for (int i = 0; i < size; i++) {
+            if (cells[i] == cell)
+                return;
+        }
+        if (size == CAPACITY) {
+            all = true;
+            return;
+        }
+        cells[size++] = cell;
+    }
+
+    /**
+     * Marks every cell as changed.
+     */
+    void addAll() {
+        all = true;
+    }
+
+    /**
+     * Removes every cell from the set. Called by the renderer once it has redrawn the changed cells.
+     */
+    public void clear() {
+        size = 0;
+        all = false;
+    }
+
+    /**
+     * Returns {@code true} if every cell may have changed, in which case the individual cells are not kept.
+     * @return true if the whole grid should be redrawn, false otherwise.
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * Gets the number of changed cells.
+     * @return the number of cells, which is {@code 0} if {@link #isAll()} is true.
+     */
+    public int size() {
+        return all ? 0 : size;
+    }
+
+    /**
+     * Gets a changed cell.
+     * @param index the index of the cell, from {@code 0} to {@link #size()}.
+     * @return the packed cell index of the changed cell.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        return cells[index];
+    }
+}
@@ -2,9 +2,11 @@ package game.core;
 
 import game.LoggerSetup;
 import game.utils.Constants;
+import game.utils.GameConfig;
 
 import java.awt.Point;
 import java.util.Random;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -18,9 +20,15 @@ public class Food {
     private static final Logger LOGGER = LoggerSetup.getLogger(Food.class.getName());
 
     /**
-     * Represents the current {@code position} of the {@code Food}.
+     * Represents the current {@code position} of the {@code Food}. Updated in place when the food spawns, so spawning
+     * does not allocate.
      */
-    private Point position;
+    private final Point position;
+
+    /**
+     * The packed cell index of the current {@code position} of the {@code Food} (see {@link Grid}).
+     */
+    private int cell;
 
     /**
      * Used to generate a random position for the food.
@@ -38,36 +46,76 @@ public class Food {
      *                                  This exception is caught and logged at {@code Level.SEVERE}.
      */
     Food(Snake snake) {
+        this(snake, GameConfig.DEFAULT);
+    }
+
+    /**
+     * Creates the initial {@code Food} object based off the settings of the current game.
+     * @param snake A reference to the current snake object. Must not be {@code null}.
+     * @param config the settings of the current game, which determine the initial position of the food.
+     * @throws IllegalArgumentException if the {@code snake} is null.
+     *                                  This exception is caught and logged at {@code Level.SEVERE}.
+     */
+    Food(Snake snake, GameConfig config) {
+        this(snake, config, new Random());
+    }
+
+    /**
+     * Creates the initial {@code Food} object based off the settings of the current game, spawning later food with
+     * the given random number generator. Seeding {@code rand} makes every food position of the game reproducible.
+     * @param snake A reference to the current snake object. Must not be {@code null}.
+     * @param config the settings of the current game, which determine the initial position of the food.
+     * @param rand the random number generator used to spawn the food.
+     * @throws IllegalArgumentException if the {@code snake} is null.
+     *                                  This exception is caught and logged at {@code Level.SEVERE}.
+     */
+    Food(Snake snake, GameConfig config, Random rand) {
         validateConstructor(snake);
         this.snake = snake;
-        rand = new Random();
-        position = Constants.FOOD_INITIAL_POSITION;
-        LOGGER.config("Food created at: [x=" + position.x + ", y=" + position.y + "]");
+        this.rand = rand;
+        position = config.foodInitialPosition();
+        cell = snake.getGrid().cell(position.x, position.y);
+        LOGGER.fine("Food created at: [x=" + position.x + ", y=" + position.y + "]");
     }
 
     /**
      * Creates food at a random position. The food is spawned at a random point in the grid that is not currently
-     * occupied by the snake.
+     * occupied by the snake. Every free cell is equally likely and the position is drawn directly from the free cells
+     * in constant time, so this does not slow down as the snake fills the grid. If the snake fills the whole grid there
+     * is nowhere left to spawn, so the food keeps its current position.
+     * @return true if the food was spawned, false if there are no free cells left.
      */
-    public void spawn() {
-        Point pos;
-        do {
-            int x = rand.nextInt(Constants.NUM_COLS);
-            int y = rand.nextInt(Constants.NUM_ROWS);
-            pos = new Point(x, y);
-        } while(snake.getSnake().contains(pos));
-        position = pos;
-        LOGGER.finer("Food spawned at: [x=" + pos.x + ", y=" + pos.y + "]");
+    public boolean spawn() {
+        Grid grid = snake.getGrid();
+        Occupancy occupancy = snake.getOccupancy();
+        if (occupancy.isFull()) {
+            LOGGER.fine("No free cells left to spawn food.");
+            return false;
+        }
+        cell = occupancy.freeCell(rand.nextInt(occupancy.freeCount()));
+        position.setLocation(grid.x(cell), grid.y(cell));
+        if (LOGGER.isLoggable(Level.FINER))
+            LOGGER.finer("Food spawned at: [x=" + position.x + ", y=" + position.y + "]");
+        return true;
     }
 
     /**
-     * Gets the {@code Point} representing the {@code position} of the food.
+     * Gets the {@code Point} representing the {@code position} of the food. The point is updated in place when the
+     * food spawns and must not be modified.
      * @return The {@code Point} representing the current position.
      */
     public Point getPosition() {
         return position;
     }
 
+    /**
+     * Gets the packed cell index of the {@code position} of the food.
+     * @return The packed cell index of the current position.
+     */
+    public int getCell() {
+        return cell;
+    }
+
     /**
      * Validates the values passed in to the food constructor
      *
@@ -0,0 +1,24 @@
+package game.core;
+
+/**
+ * A {@code GameClock} drives the game loop of a {@link GameEngine}. The engine only needs to be able to start, stop,
+ * and query the clock, which allows the same game logic to run from a Swing timer, a dedicated loop thread, or with no
+ * clock at all when the caller steps the game by hand.
+ */
+public interface GameClock {
+    /**
+     * Starts the clock so that the game loop begins receiving ticks.
+     */
+    void start();
+
+    /**
+     * Stops the clock so that the game loop no longer receives ticks.
+     */
+    void stop();
+
+    /**
+     * Returns {@code true} if the clock is currently running.
+     * @return true if the clock is running, false otherwise.
+     */
+    boolean isRunning();
+}
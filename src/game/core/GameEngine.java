@@ -3,8 +3,11 @@ package game.core;
 import game.LoggerSetup;
 import game.utils.CollisionDetector;
 import game.utils.Constants;
+import game.utils.Direction;
+import game.utils.GameConfig;
 
-import javax.swing.*;
+import java.util.Random;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -20,15 +23,20 @@ public class GameEngine {
     /** Specifies whether the game is currently running. */
     private boolean isRunning;
 
+    /**
+     * The settings of the current game loop. By default, these are determined by the {@link Constants} class.
+     */
+    private GameConfig config;
+
     /**
      * The {@code Snake} object of the current game loop. Its initial position is determined by the
-     * {@link Constants#SNAKE_INITIAL_POSITION} from the {@code Constants} class.
+     * {@link GameConfig#snakeInitialPosition()} of the current {@code config}.
      */
     private Snake snake;
 
     /**
      * The {@code Food} object of the current game loop. Its initial position is determined by the
-     * {@link Constants#FOOD_INITIAL_POSITION} from the {@code Constants} class.
+     * {@link GameConfig#foodInitialPosition()} of the current {@code config}.
      */
     private Food food;
     /**
@@ -42,72 +50,331 @@ public class GameEngine {
      */
     private int score;
     /**
-     * An instance of the game loop {@code timer}.
+     * The {@code clock} that drives the game loop.
+     */
+    private final GameClock clock;
+
+    /**
+     * The seed of the random number generator used to spawn food in the current game loop.
+     */
+    private long seed;
+
+    /**
+     * Specifies whether games started from now on are recorded.
+     */
+    private boolean recording;
+
+    /**
+     * Records the inputs of the current game loop, or {@code null} if it is not being recorded.
      */
-    private final Timer timer;
+    private ReplayRecorder recorder;
+
+    /**
+     * The cells that have changed since the renderer last cleared them.
+     */
+    private final ChangedCells changed;
+
+    /**
+     * The direction inputs waiting to be applied on the next ticks.
+     */
+    private final InputQueue inputs;
+
+    /**
+     * The regions of the grid the snake can move around in, used to answer safe move queries.
+     */
+    private final Reachability reachability;
+
+    /**
+     * Creates a headless {@code GameEngine} driven by a {@link ManualClock}. The game only advances when
+     * {@link #step(Direction)} or {@link #updateGame()} is called.
+     */
+    public GameEngine() {
+        this(new ManualClock());
+    }
 
     /**
      * Creates a {@code GameEngine}. By default, {@code isRunning} is set to false.
-     * @param timer an instance of the game loop timer so we can start and stop the game.
+     * @param clock the clock that drives the game loop so we can start and stop the game.
+     * @throws IllegalArgumentException if {@code clock} is null.
      */
-    public GameEngine(Timer timer) {
-        this.timer = timer;
+    public GameEngine(GameClock clock) {
+        if (clock == null) {
+            LOGGER.severe("clock passed into the GameEngine constructor was null.");
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        this.clock = clock;
+        config = GameConfig.DEFAULT;
         isRunning = false;
-        LOGGER.config("GameEngine initialized.");
+        recording = false;
+        changed = new ChangedCells();
+        inputs = new InputQueue();
+        reachability = new Reachability();
+        LOGGER.fine("GameEngine initialized.");
     }
 
     /**
-     * Initializes the game elements initial values determined by the {@link Constants} file.
+     * Initializes the game elements initial values determined by the current {@code config}, which is the same as
+     * the previous game or the {@link Constants} file if no game has been started.
      * The game state is set to running and the score is set to 0.
      */
     public void startGame() {
+        startGame(config);
+    }
+
+    /**
+     * Initializes the game elements initial values determined by the given {@code config}, which is then kept for
+     * later games started with {@link #startGame()}. The food is spawned using a randomly chosen seed, which can be
+     * retrieved with {@link #getSeed()} to reproduce the game.
+     * The game state is set to running and the score is set to 0.
+     * @param config the settings to start the game with.
+     * @throws IllegalArgumentException if {@code config} is null.
+     */
+    public void startGame(GameConfig config) {
+        startGame(config, new Random().nextLong());
+    }
+
+    /**
+     * Initializes the game elements initial values determined by the given {@code config}, which is then kept for
+     * later games started with {@link #startGame()}. The food is spawned using a random number generator seeded with
+     * {@code seed}, so two games started with the same settings and seed and given the same inputs play out
+     * identically.
+     * The game state is set to running and the score is set to 0.
+     * @param config the settings to start the game with.
+     * @param seed the seed of the random number generator used to spawn the food.
+     * @throws IllegalArgumentException if {@code config} is null.
+     */
+    public void startGame(GameConfig config, long seed) {
+        if (config == null) {
+            LOGGER.severe("config passed into startGame was null.");
+            throw new IllegalArgumentException("config must not be null");
+        }
+        this.config = config;
+        this.seed = seed;
         isRunning = true;
-        snake = new Snake();
-        food = new Food(snake);
+        snake = new Snake(config);
+        food = new Food(snake, config, new Random(seed));
+        recorder = recording ? new ReplayRecorder(config, seed) : null;
         cd = new CollisionDetector(snake, food);
         score = 0;
-        timer.start();
-        LOGGER.config("Game started. Snake, Food, and CD initialized.");
+        inputs.clear();
+        changed.addAll();
+        clock.start();
+        LOGGER.fine("Game started. Snake, Food, and CD initialized.");
     }
 
     /**
      * Updates the game state on each call. The game state updates by moving the {@code snake} and updating its
      * direction, and updating attributes based on a collision check. If the {@code snake} has run into itself or the
-     * wall, {@code endGame} is called. If the {@code snake} has run into {@code food} then the {@code snake} will
-     * grow, a new food will spawn, and the {@code score} will be incremented.
+     * wall, the game ends. If the {@code snake} has run into {@code food} then the {@code snake} will
+     * grow, a new food will spawn, and the {@code score} will be incremented. If the {@code snake} fills the whole grid
+     * there is nowhere left to spawn food, so the game ends with a perfect score.
      */
     public void updateGame() {
+        step(null);
+    }
+
+    /**
+     * Advances the game by a single tick without relying on the clock, so the game can be run headless. Inputs queued
+     * with {@link #queueDirection(Direction)} are applied first, then if {@code input} is not {@code null} it is passed
+     * to {@link Snake#changeDirection(Direction)} before the {@code snake} moves. Otherwise, this behaves exactly like
+     * {@link #updateGame()}.
+     * @param input the direction to attempt to change to on this tick, or {@code null} to keep the queued direction.
+     * @return the {@link TickOutcome} describing what happened during the tick.
+     */
+    public TickOutcome step(Direction input) {
         if (!isRunning) {
             LOGGER.fine("Game updated when not running.");
-            return;
+            return TickOutcome.IDLE;
         }
+        applyQueuedInputs();
+        if (input != null)
+            changeDirection(input);
+        if (recorder != null)
+            recorder.tick();
+        // the old head becomes part of the body and the cell before the tail becomes the new tail
+        int oldHead = snake.getHeadCell();
+        int oldTail = snake.getCell(snake.length() - 1);
         // keep old tail because when the snake grows the tail stays in one spot for a frame
         snake.move();
+        changed.add(oldHead);
+        changed.add(snake.getHeadCell());
+        changed.add(oldTail);
+        changed.add(snake.getCell(snake.length() - 1));
         LOGGER.finest("Snake moved and direction updated.");
         if (cd.checkFoodCollision()) {
             snake.grow();
-            food.spawn();
             score++;
-            LOGGER.finer("Snake ate food. Score is now " + score + ".");
+            if (LOGGER.isLoggable(Level.FINER))
+                LOGGER.finer("Snake ate food. Score is now " + score + ".");
+            if (!food.spawn()) {
+                isRunning = false;
+                changed.addAll();
+                clock.stop();
+                LOGGER.fine("Perfect game. Final score " + score + ".");
+                return TickOutcome.WON;
+            }
+            changed.add(food.getCell());
+            return TickOutcome.ATE;
         } else if (cd.checkWallCollision() || cd.checkSelfCollision()) {
-            LOGGER.info("Collision Detected.");
-            endGame();
+            LOGGER.fine("Collision Detected.");
+            stopGame();
+            return TickOutcome.COLLIDED;
         }
+        return TickOutcome.MOVED;
     }
 
     /**
-     * If the game is running, ends the game by updating {@code isRunning} to {@code false}, moving the {@code snake}
-     * backwards, and stopping the {@code timer}.
+     * If the game is running, ends the game on behalf of the player by updating {@code isRunning} to {@code false},
+     * moving the {@code snake} backwards, and stopping the {@code clock}. Games ended this way are recorded as ended by
+     * the player.
      */
     public void endGame() {
         if(!isRunning) {
             LOGGER.info("Attempted to end game while not running.");
             return;
         }
+        if (recorder != null)
+            recorder.end();
+        stopGame();
+    }
+
+    /**
+     * Ends the running game by updating {@code isRunning} to {@code false}, moving the {@code snake} backwards, and
+     * stopping the {@code clock}. Used both when the player ends the game and when the snake collides.
+     */
+    private void stopGame() {
         snake.moveBackwards();
         isRunning = false;
-        timer.stop();
-        LOGGER.info("Game over. Final score " + score + ".");
+        // the whole snake is redrawn as dead
+        changed.addAll();
+        clock.stop();
+        LOGGER.fine("Game over. Final score " + score + ".");
+    }
+
+    /**
+     * Attempts to change the direction of the {@code snake} with {@link Snake#changeDirection(Direction)}, recording
+     * the input if the game is being recorded. Inputs should be passed through the engine rather than directly to the
+     * snake so they are included in replays.
+     * @param direction the direction to attempt to change to.
+     */
+    public void changeDirection(Direction direction) {
+        if (recorder != null && isRunning)
+            recorder.input(direction);
+        snake.changeDirection(direction);
+    }
+
+    /**
+     * Queues a direction input to be applied on a later tick, in the order inputs were queued. The snake can only turn
+     * once per tick, so inputs made faster than the game ticks wait for their turn instead of replacing each other.
+     * <p>
+     *     Unlike the rest of the engine, this can be called without locking the engine while another thread ticks it,
+     *     as long as only one thread queues inputs.
+     * </p>
+     * @param direction the direction to attempt to change to.
+     * @return true if the input was queued, false if too many inputs are already waiting and it was dropped.
+     * @throws IllegalArgumentException if {@code direction} is null.
+     */
+    public boolean queueDirection(Direction direction) {
+        return inputs.offer(direction, System.nanoTime());
+    }
+
+    /**
+     * Applies queued inputs in the order they were made until one turns the {@code snake} on this tick. Inputs the
+     * snake ignores, such as turning back on itself, are skipped, and the rest stay queued for later ticks.
+     */
+    private void applyQueuedInputs() {
+        Direction direction;
+        while (!snake.hasQueuedDirection() && (direction = inputs.poll()) != null) {
+            changeDirection(direction);
+            if (LOGGER.isLoggable(Level.FINEST))
+                LOGGER.finest("Applied " + direction + " input after "
+                        + (System.nanoTime() - inputs.polledTime()) / 1000 + " us.");
+        }
+    }
+
+    /**
+     * Gets the number of cells the {@code snake} could move around in after moving one cell in the given direction:
+     * the size of the region of cells that are not part of the body, or are its tail, joined to the cell moved into.
+     * Moving back into the body, including turning back on itself, gives {@code 0}.
+     * <p>
+     *     The regions are kept up to date as the snake moves rather than flood filled on every call, so this takes
+     *     constant time on most ticks, however large the board is.
+     * </p>
+     * @param direction the direction to move in.
+     * @return the number of cells in the region moved into, including the cell moved into.
+     * @throws IllegalArgumentException if {@code direction} is null.
+     * @throws IllegalStateException if no game has been started yet.
+     */
+    public int reachableArea(Direction direction) {
+        if (direction == null) {
+            LOGGER.severe("direction passed into reachableArea was null.");
+            throw new IllegalArgumentException("direction must not be null");
+        }
+        requireStarted("reachableArea");
+        return reachability.reachableArea(snake, direction);
+    }
+
+    /**
+     * Returns {@code true} if moving the {@code snake} one cell in the given direction does not collide and leaves it
+     * room to survive, because the region moved into either contains its tail, so it can follow the tail, or has room
+     * for its whole body. See {@link #reachableArea(Direction)}.
+     * @param direction the direction to move in.
+     * @return true if the move is safe, false otherwise.
+     * @throws IllegalArgumentException if {@code direction} is null.
+     * @throws IllegalStateException if no game has been started yet.
+     */
+    public boolean isSafe(Direction direction) {
+        if (direction == null) {
+            LOGGER.severe("direction passed into isSafe was null.");
+            throw new IllegalArgumentException("direction must not be null");
+        }
+        requireStarted("isSafe");
+        return reachability.isSafe(snake, direction);
+    }
+
+    /**
+     * Checks that a game has been started, so there is a {@code snake} to query.
+     * @param method the name of the method that needs the game, used in the error message.
+     * @throws IllegalStateException if no game has been started yet.
+     */
+    private void requireStarted(String method) {
+        if (snake == null) {
+            LOGGER.severe(method + " was called before a game was started.");
+            throw new IllegalStateException(method + " needs a game to be started with startGame first");
+        }
+    }
+
+    /**
+     * Sets whether games started from now on are recorded. The current game is not affected.
+     * @param recording true to record games, false otherwise.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Gets a {@link Replay} of the current game loop as it has been played so far.
+     * @return the replay of the current game, or {@code null} if it is not being recorded.
+     */
+    public Replay getReplay() {
+        return recorder == null ? null : recorder.toReplay();
+    }
+
+    /**
+     * Gets the cells that have changed since the set was last cleared. A renderer should redraw these cells and then
+     * {@link ChangedCells#clear() clear} the set.
+     * @return The changed cells.
+     */
+    public ChangedCells getChangedCells() {
+        return changed;
+    }
+
+    /**
+     * Gets the seed of the random number generator used to spawn food in the current game loop.
+     * @return The current seed.
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
@@ -119,13 +386,13 @@ public class GameEngine {
     }
 
     /**
-     * Toggles the state of the timer. If the timer is running then it will stop, otherwise it will start.
+     * Toggles the state of the clock. If the clock is running then it will stop, otherwise it will start.
      */
     public void togglePause() {
-        if(timer.isRunning())
-            timer.stop();
+        if(clock.isRunning())
+            clock.stop();
         else
-            timer.start();
+            clock.start();
     }
 
     /**
@@ -144,6 +411,14 @@ public class GameEngine {
         return food;
     }
 
+    /**
+     * Gets the settings of the current game loop.
+     * @return The current {@code config}.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
     /**
      * Gets the {@code score} of the current game loop.
      * @return The current score.
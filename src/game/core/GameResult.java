@@ -0,0 +1,21 @@
+package game.core;
+
+/**
+ * A record describing the result of a single headless game played by the {@link BatchSimulator}.
+ *
+ * @param seed the seed the game was started with
+ * @param score the final score of the game
+ * @param length the final length of the snake
+ * @param ticks the number of ticks the game was played for
+ * @param outcome the outcome of the last tick. This is {@link TickOutcome#COLLIDED} or {@link TickOutcome#WON} if the
+ *                game ended, otherwise the game was stopped after the maximum number of ticks.
+ */
+public record GameResult(long seed, int score, int length, int ticks, TickOutcome outcome) {
+    /**
+     * Returns {@code true} if the game ended before reaching the maximum number of ticks.
+     * @return true if the game ended, false otherwise.
+     */
+    public boolean finished() {
+        return outcome == TickOutcome.COLLIDED || outcome == TickOutcome.WON;
+    }
+}
@@ -0,0 +1,113 @@
+package game.core;
+
+/**
+ * Describes the dimensions of the game grid and converts between {@code (x, y)} coordinates and packed cell indices.
+ * <p>
+ *     A packed cell index is a single {@code int} representing a position on the grid, allowing game elements to be
+ *     stored in primitive arrays rather than as {@link java.awt.Point} objects. The grid is surrounded by a border one
+ *     cell wide so that a head which has just moved through a wall can still be represented until the game ends.
+ * </p>
+ */
+public final class Grid {
+    /** Number of rows in the grid. */
+    private final int rows;
+
+    /** Number of cols in the grid. */
+    private final int cols;
+
+    /** Number of packed cells in each row, including the border on either side. */
+    private final int stride;
+
+    /**
+     * Creates a new {@code Grid} with the given dimensions.
+     * @param rows the number of rows in the grid. Must be positive.
+     * @param cols the number of cols in the grid. Must be positive.
+     * @throws IllegalArgumentException if {@code rows} or {@code cols} is not positive.
+     */
+    public Grid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0)
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        this.rows = rows;
+        this.cols = cols;
+        stride = cols + 2;
+    }
+
+    /**
+     * Packs the given coordinates into a cell index.
+     * @param x the column of the cell, from {@code -1} to {@code cols}.
+     * @param y the row of the cell, from {@code -1} to {@code rows}.
+     * @return the packed cell index.
+     */
+    public int cell(int x, int y) {
+        return (y + 1) * stride + x + 1;
+    }
+
+    /**
+     * Gets the column of a packed cell index.
+     * @param cell the packed cell index.
+     * @return the column of the cell.
+     */
+    public int x(int cell) {
+        return cell % stride - 1;
+    }
+
+    /**
+     * Gets the row of a packed cell index.
+     * @param cell the packed cell index.
+     * @return the row of the cell.
+     */
+    public int y(int cell) {
+        return cell / stride - 1;
+    }
+
+    /**
+     * Gets the offset to add to a packed cell index to move one row down. Subtracting it moves one row up, while
+     * adding or subtracting {@code 1} moves one column right or left.
+     * @return the number of packed cells in each row.
+     */
+    public int stride() {
+        return stride;
+    }
+
+    /**
+     * Returns {@code true} if the given coordinates are inside the playable area of the grid.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @return true if the cell is inside the grid, false otherwise.
+     */
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    /**
+     * Gets the number of packed cell indices, including the border. Every packed cell index is less than this value.
+     * @return the number of packed cells.
+     */
+    public int packedSize() {
+        return stride * (rows + 2);
+    }
+
+    /**
+     * Gets the number of playable cells in the grid.
+     * @return the number of cells inside the grid.
+     */
+    public int area() {
+        return rows * cols;
+    }
+
+    /**
+     * Gets the number of rows in the grid.
+     * @return the number of rows.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of cols in the grid.
+     * @return the number of cols.
+     */
+    public int cols() {
+        return cols;
+    }
+}
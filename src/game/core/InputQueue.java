@@ -0,0 +1,132 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded queue of timestamped direction inputs, passed from the thread that reads the keyboard to the thread that
+ * ticks the game without either of them taking a lock.
+ * <p>
+ *     The queue is a ring buffer for exactly one producer and one consumer. The producer writes an input into the
+ *     next free slot and then publishes it by advancing {@code tail}, and the consumer reads the input and then frees
+ *     the slot by advancing {@code head}. Each index is only ever written by one side, so a volatile write is all that
+ *     is needed to hand an input over. Offering and polling never allocate.
+ * </p>
+ * <p>
+ *     {@link #offer(Direction, long)} must only be called by the producer, and {@link #poll()}, {@link #polledTime()}
+ *     and {@link #clear()} only by the consumer, or by threads that take turns with it under a common lock.
+ * </p>
+ */
+final class InputQueue {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(InputQueue.class.getName());
+
+    /** The number of inputs the queue holds, which must be a power of two. */
+    static final int CAPACITY = 32;
+
+    /** The queued directions, indexed by position modulo {@link #CAPACITY}. */
+    private final Direction[] directions;
+
+    /** The {@link System#nanoTime()} each queued direction was offered at. */
+    private final long[] times;
+
+    /** The position of the next input to poll. Only written by the consumer. */
+    private volatile long head;
+
+    /** The position the next input is offered at. Only written by the producer. */
+    private volatile long tail;
+
+    /**
+     * The producer's last read of {@code head}, so it only has to read the volatile field again when the queue
+     * looks full.
+     */
+    private long cachedHead;
+
+    /** The time the last polled input was offered at. */
+    private long polledTime;
+
+    /**
+     * Creates an empty {@code InputQueue}.
+     */
+    InputQueue() {
+        directions = new Direction[CAPACITY];
+        times = new long[CAPACITY];
+        head = 0;
+        tail = 0;
+        cachedHead = 0;
+    }
+
+    /**
+     * Adds an input to the end of the queue. Called by the producer.
+     * @param direction the direction input.
+     * @param time the {@link System#nanoTime()} the input happened at.
+     * @return true if the input was queued, false if the queue is full and it was dropped.
+     * @throws IllegalArgumentException if {@code direction} is null.
+     */
+    boolean offer(Direction direction, long time) {
+        if (direction == null) {
+            LOGGER.severe("direction passed into offer was null.");
+            throw new IllegalArgumentException("direction must not be null");
+        }
+        long t = tail;
+        if (t - cachedHead == CAPACITY) {
+            cachedHead = head;
+            if (t - cachedHead == CAPACITY) {
+                if (LOGGER.isLoggable(Level.FINE))
+                    LOGGER.fine("Input queue full. Dropped " + direction + ".");
+                return false;
+            }
+        }
+        int slot = (int) t & (CAPACITY - 1);
+        directions[slot] = direction;
+        times[slot] = time;
+        // publishes the slot to the consumer
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Removes the input at the front of the queue. Called by the consumer.
+     * @return the direction of the oldest input, or {@code null} if the queue is empty.
+     */
+    Direction poll() {
+        long h = head;
+        if (h == tail)
+            return null;
+        int slot = (int) h & (CAPACITY - 1);
+        Direction direction = directions[slot];
+        polledTime = times[slot];
+        // hands the slot back to the producer
+        head = h + 1;
+        return direction;
+    }
+
+    /**
+     * Gets the time the input last returned by {@link #poll()} was offered at. Called by the consumer.
+     * @return the {@link System#nanoTime()} of the last polled input.
+     */
+    long polledTime() {
+        return polledTime;
+    }
+
+    /**
+     * Discards every queued input. Called by the consumer.
+     */
+    void clear() {
+        head = tail;
+    }
+
+    /**
+     * Returns {@code true} if there are no queued inputs.
+     * @return true if the queue is empty, false otherwise.
+     */
+    boolean isEmpty() {
+        return head == tail;
+    }
+}
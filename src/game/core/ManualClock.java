@@ -0,0 +1,43 @@
+package game.core;
+
+/**
+ * A {@link GameClock} that never ticks on its own. It only keeps track of whether it has been started, leaving the
+ * caller to advance the game with {@link GameEngine#step}. This is used to run games headless, such as in batch
+ * simulations, where the game should be stepped as fast as possible instead of on a timer.
+ */
+public class ManualClock implements GameClock {
+    /** Specifies whether the clock has been started. */
+    private boolean running;
+
+    /**
+     * Creates a {@code ManualClock} that is initially stopped.
+     */
+    public ManualClock() {
+        running = false;
+    }
+
+    /**
+     * Marks the clock as running.
+     */
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Marks the clock as stopped.
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Returns {@code true} if the clock has been started and not stopped since.
+     * @return true if the clock is running, false otherwise.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,132 @@
+package game.core;
+
+import java.util.Arrays;
+
+/**
+ * A bitmap recording which cells of a {@link Grid} are occupied. Each packed cell index maps to a single bit, so
+ * checking, marking, and clearing a cell take constant time.
+ * <p>
+ *     The free cells inside the grid are also kept in an indexed set: an array of free cells together with a map from
+ *     each cell to its index in that array. Occupying a cell swaps the last free cell into its slot, so the set is kept
+ *     up to date in constant time and a free cell can be selected uniformly in constant time, no matter how full the
+ *     grid is.
+ * </p>
+ */
+public final class Occupancy {
+    /** The grid whose cells are tracked. */
+    private final Grid grid;
+
+    /** One bit per packed cell index. A set bit means the cell is occupied. */
+    private final long[] bits;
+
+    /** One bit per packed cell index. A set bit means the cell is inside the grid rather than on its border. */
+    private final long[] inside;
+
+    /** The free cells inside the grid. Only the first {@code freeCount} entries are used. */
+    private final int[] freeCells;
+
+    /** Maps each packed cell index to its index in {@code freeCells}, or {@code -1} if the cell is not in the set. */
+    private final int[] freeIndex;
+
+    /** The number of free cells inside the grid. */
+    private int freeCount;
+
+    /**
+     * Creates a new {@code Occupancy} where every cell of the given {@code grid} is free.
+     * @param grid the grid whose cells are tracked.
+     */
+    public Occupancy(Grid grid) {
+        this.grid = grid;
+        int words = (grid.packedSize() + 63) >>> 6;
+        bits = new long[words];
+        inside = new long[words];
+        freeCells = new int[grid.area()];
+        freeIndex = new int[grid.packedSize()];
+        Arrays.fill(freeIndex, -1);
+        freeCount = 0;
+        for (int y = 0; y < grid.rows(); y++) {
+            for (int x = 0; x < grid.cols(); x++) {
+                int cell = grid.cell(x, y);
+                inside[cell >>> 6] |= 1L << cell;
+                freeIndex[cell] = freeCount;
+                freeCells[freeCount++] = cell;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given cell is occupied.
+     * @param cell the packed cell index.
+     * @return true if the cell is occupied, false otherwise.
+     */
+    public boolean isOccupied(int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Marks the given cell as occupied.
+     * @param cell the packed cell index.
+     * @return true if the cell was previously free, false if it was already occupied.
+     */
+    public boolean occupy(int cell) {
+        int word = cell >>> 6;
+        long mask = 1L << cell;
+        if ((bits[word] & mask) != 0)
+            return false;
+        bits[word] |= mask;
+        if ((inside[word] & mask) != 0) {
+            // swap the last free cell into the slot of the occupied cell
+            int index = freeIndex[cell];
+            int last = freeCells[--freeCount];
+            freeCells[index] = last;
+            freeIndex[last] = index;
+            freeIndex[cell] = -1;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the given cell as free.
+     * @param cell the packed cell index.
+     */
+    public void free(int cell) {
+        int word = cell >>> 6;
+        long mask = 1L << cell;
+        if ((bits[word] & mask) == 0)
+            return;
+        bits[word] &= ~mask;
+        if ((inside[word] & mask) != 0) {
+            freeIndex[cell] = freeCount;
+            freeCells[freeCount++] = cell;
+        }
+    }
+
+    /**
+     * Gets the number of free cells inside the grid.
+     * @return the number of free cells.
+     */
+    public int freeCount() {
+        return freeCount;
+    }
+
+    /**
+     * Returns {@code true} if there are no free cells left inside the grid.
+     * @return true if every cell inside the grid is occupied, false otherwise.
+     */
+    public boolean isFull() {
+        return freeCount == 0;
+    }
+
+    /**
+     * Gets the free cell stored at the given index of the free cell set. The order of the set is arbitrary, so
+     * selecting a uniformly random index selects a uniformly random free cell.
+     * @param index the index in the free cell set, from {@code 0} to {@link #freeCount()} exclusive.
+     * @return the packed cell index of the free cell.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #freeCount()}.
+     */
+    public int freeCell(int index) {
+        if (index < 0 || index >= freeCount)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + freeCount + " free cells");
+        return freeCells[index];
+    }
+}
@@ -0,0 +1,19 @@
+package game.core;
+
+import game.utils.Direction;
+
+/**
+ * A {@code Policy} decides which direction the snake should turn on each tick of a headless game, such as a bot being
+ * evaluated by the {@link BatchSimulator}. The returned direction is passed to {@link Snake#changeDirection(Direction)}
+ * before the snake moves.
+ */
+@FunctionalInterface
+public interface Policy {
+    /**
+     * Decides the direction the snake should attempt to turn on the next tick.
+     * @param engine the engine of the game being played. Must not be modified by the policy other than through the
+     *               returned direction.
+     * @return the direction to attempt to change to, or {@code null} to keep the current direction.
+     */
+    Direction decide(GameEngine engine);
+}
@@ -0,0 +1,441 @@
+package game.core;
+
+import game.LoggerSetup;
+import game.utils.Direction;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the regions of the grid the snake can move around in, so that asking how much room a move leaves takes
+ * constant time instead of a flood fill of the board for every candidate move.
+ * <p>
+ *     The open cells, which are the cells inside the grid that are not part of the body, are split into connected
+ *     regions. Every open cell is labelled with the id of its region, and the number of cells in each region is kept.
+ *     The tail counts as open, as it moves out of the way on the next tick. The labels are rebuilt with a flood fill
+ *     when a new snake is seen, and are otherwise kept up to date one tick at a time, as each tick only closes the
+ *     cell the head moved into and opens the cell the tail moved onto.
+ * </p>
+ * <p>
+ *     Opening a cell may join regions together, in which case the smaller regions are relabelled to match the
+ *     largest. Closing a cell may split a region. If the open cells around it are still joined to each other through
+ *     the eight cells surrounding it, which is almost always true, the region cannot have been split and nothing else
+ *     is done. Otherwise, a search is started from each side, and the searches take turns visiting one cell each until
+ *     they meet or all but one of them have run out of cells. A search that runs out of cells has visited a whole new
+ *     region, which is relabelled. So each tick only does as much work as the size of the smaller side of any region
+ *     that was joined or split, which stays small as the board fills up.
+ * </p>
+ */
+final class Reachability {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(Reachability.class.getName());
+
+    /** The label of a cell that is not open. */
+    private static final int CLOSED = 0;
+
+    /** The label of an open cell that has not been given a region yet while the labels are rebuilt. */
+    private static final int UNLABELLED = -1;
+
+    /** The most searches started when a cell is closed, one for each of its sides. */
+    private static final int MAX_SEARCHES = 4;
+
+    /** The snake the labels were built for, or {@code null} if they have not been built yet. */
+    private Snake snake;
+
+    /** The grid the arrays are sized for, or {@code null} if they have not been allocated yet. */
+    private Grid grid;
+
+    /** The moves from a cell to each of its neighbours, ordered up, down, left, right. */
+    private int[] offsets;
+
+    /** The moves from a cell to each of the eight cells surrounding it, in order around the cell from above it. */
+    private int[] ring;
+
+    /** The id of the region each packed cell is in, or {@code CLOSED} if it is not open. */
+    private int[] labels;
+
+    /** The number of cells in each region, indexed by id. */
+    private int[] sizes;
+
+    /** The ids not used by any region. Only the first {@code freeIdCount} entries are used. */
+    private int[] freeIds;
+
+    /** The number of unused ids. */
+    private int freeIdCount;
+
+    /** The cells waiting to be relabelled by a flood fill. */
+    private int[] queue;
+
+    /** The search that last visited each cell. Search {@code i} of the current split marks cells with {@code stamp + i}. */
+    private int[] marks;
+
+    /** The mark of the first search of the current split. */
+    private int stamp;
+
+    /** The cells each search of the current split is waiting to visit. */
+    private final int[][] searches;
+
+    /** The index of the next cell each search visits. */
+    private final int[] searchHeads;
+
+    /** The number of cells added to each search. */
+    private final int[] searchTails;
+
+    /** The cell each search started from. */
+    private final int[] sources;
+
+    /** The search each search has met, forming groups of searches that are in the same region. */
+    private final int[] groups;
+
+    /** The head of the snake when the labels were last updated. */
+    private int lastHead;
+
+    /** The tail of the snake when the labels were last updated. */
+    private int lastTail;
+
+    /** The length of the snake when the labels were last updated. */
+    private int lastLength;
+
+    /**
+     * Creates a {@code Reachability}. The labels are built the first time they are queried.
+     */
+    Reachability() {
+        snake = null;
+        grid = null;
+        searches = new int[MAX_SEARCHES][64];
+        searchHeads = new int[MAX_SEARCHES];
+        searchTails = new int[MAX_SEARCHES];
+        sources = new int[MAX_SEARCHES];
+        groups = new int[MAX_SEARCHES];
+    }
+
+    /**
+     * Gets the number of cells in the region the head would move into by moving one cell in the given direction.
+     * @param snake the snake of the current game.
+     * @param direction the direction to move in.
+     * @return the number of cells in the region, including the cell moved into, or {@code 0} if the cell is not open.
+     */
+    int reachableArea(Snake snake, Direction direction) {
+        update(snake);
+        int id = labels[lastHead + offset(direction)];
+        return id == CLOSED ? 0 : sizes[id];
+    }
+
+    /**
+     * Returns {@code true} if moving one cell in the given direction leaves the snake room to survive: the cell moved
+     * into is open, and its region either contains the tail, so the snake can follow it, or has room for the whole
+     * body.
+     * @param snake the snake of the current game.
+     * @param direction the direction to move in.
+     * @return true if the move is safe, false otherwise.
+     */
+    boolean isSafe(Snake snake, Direction direction) {
+        update(snake);
+        int id = labels[lastHead + offset(direction)];
+        return id != CLOSED && (id == labels[lastTail] || sizes[id] >= lastLength);
+    }
+
+    /**
+     * Brings the labels up to date with the snake. If the snake has moved a single cell since the last update, only
+     * the cells at its ends are changed. Otherwise, the labels are rebuilt.
+     * @param snake the snake of the current game.
+     */
+    private void update(Snake snake) {
+        int length = snake.length();
+        int head = snake.getHeadCell();
+        int tail = snake.getCell(length - 1);
+        if (snake == this.snake && head == lastHead && tail == lastTail && length == lastLength)
+            return;
+        boolean moved = snake == this.snake && length > 1 && snake.getCell(1) == lastHead
+                && (length == lastLength || (length == lastLength + 1 && tail == lastTail));
+        if (moved) {
+            close(head);
+            open(tail);
+        } else {
+            rebuild(snake, tail);
+        }
+        lastHead = head;
+        lastTail = tail;
+        lastLength = length;
+    }
+
+    /**
+     * Labels every open cell from scratch with a flood fill of each region.
+     * @param snake the snake of the current game.
+     * @param tail the packed cell of the tail, which counts as open.
+     */
+    private void rebuild(Snake snake, int tail) {
+        this.snake = snake;
+        resize(snake.getGrid());
+        Arrays.fill(labels, CLOSED);
+        // freed ids must have a size of zero, as a cell opened on its own takes one and counts up from its size
+        Arrays.fill(sizes, 0);
+        for (int y = 0; y < grid.rows(); y++) {
+            for (int x = 0; x < grid.cols(); x++) {
+                int cell = grid.cell(x, y);
+                if (cell == tail || !snake.isOccupied(cell))
+                    labels[cell] = UNLABELLED;
+            }
+        }
+        freeIdCount = 0;
+        for (int id = sizes.length - 1; id > CLOSED; id--)
+            freeIds[freeIdCount++] = id;
+        int regions = 0;
+        for (int cell = 0; cell < labels.length; cell++) {
+            if (labels[cell] == UNLABELLED) {
+                int id = takeId();
+                sizes[id] = relabel(cell, UNLABELLED, id);
+                regions++;
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINE))
+            LOGGER.fine("Reachability rebuilt with " + regions + " regions.");
+    }
+
+    /**
+     * Opens a cell, joining the regions around it into the largest of them.
+     * @param cell the packed cell.
+     */
+    private void open(int cell) {
+        if (labels[cell] != CLOSED)
+            return;
+        int target = CLOSED;
+        for (int offset : offsets) {
+            int id = labels[cell + offset];
+            if (id != CLOSED && (target == CLOSED || sizes[id] > sizes[target]))
+                target = id;
+        }
+        if (target == CLOSED)
+            target = takeId();
+        for (int offset : offsets) {
+            int id = labels[cell + offset];
+            if (id != CLOSED && id != target) {
+                sizes[target] += relabel(cell + offset, id, target);
+                sizes[id] = 0;
+                freeIds[freeIdCount++] = id;
+            }
+        }
+        labels[cell] = target;
+        sizes[target]++;
+    }
+
+    /**
+     * Closes a cell, splitting its region if the cell was the only thing joining its sides.
+     * @param cell the packed cell.
+     */
+    private void close(int cell) {
+        int id = labels[cell];
+        if (id == CLOSED)
+            return;
+        labels[cell] = CLOSED;
+        if (--sizes[id] == 0) {
+            freeIds[freeIdCount++] = id;
+            return;
+        }
+        int sides = findSides(cell);
+        if (sides > 1)
+            split(id, sides);
+    }
+
+    /**
+     * Finds the open neighbours of a cell that are not joined to each other through the eight cells surrounding it,
+     * storing one neighbour from each side in {@code sources}.
+     * @param cell the packed cell.
+     * @return the number of sides, or {@code 1} if the open neighbours are all joined around the cell.
+     */
+    private int findSides(int cell) {
+        int start = -1;
+        for (int i = 0; i < ring.length; i++) {
+            if (labels[cell + ring[i]] == CLOSED) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0)
+            return 1;
+        // walk once around the cell from a closed cell, so every run of open cells is ended by a closed one
+        int sides = 0;
+        int side = -1;
+        for (int k = 1; k <= ring.length; k++) {
+            int i = (start + k) % ring.length;
+            int neighbour = cell + ring[i];
+            if (labels[neighbour] == CLOSED) {
+                if (side >= 0)
+                    sources[sides++] = side;
+                side = -1;
+            } else if (i % 2 == 0 && side < 0) {
+                // only the cells directly above, below, left and right of the cell were joined through it
+                side = neighbour;
+            }
+        }
+        return sides;
+    }
+
+    /**
+     * Searches from each side of a closed cell in turn until at most one group of searches that have met each other
+     * still has cells left to visit. Each group that runs out of cells before then is given a new id.
+     * @param id the id of the region the closed cell was in.
+     * @param count the number of sides, whose cells are in {@code sources}.
+     */
+    private void split(int id, int count) {
+        if (stamp > Integer.MAX_VALUE - MAX_SEARCHES) {
+            // the marks wrapped around, so stale marks could match again
+            Arrays.fill(marks, 0);
+            stamp = 0;
+        }
+        stamp += MAX_SEARCHES;
+        for (int i = 0; i < count; i++) {
+            searches[i][0] = sources[i];
+            searchHeads[i] = 0;
+            searchTails[i] = 1;
+            groups[i] = i;
+            marks[sources[i]] = stamp + i;
+        }
+        int open = count;
+        int visited = 0;
+        while (open > 1) {
+            for (int i = 0; i < count && open > 1; i++) {
+                if (searchHeads[i] == searchTails[i])
+                    continue;
+                int cell = searches[i][searchHeads[i]++];
+                visited++;
+                for (int offset : offsets) {
+                    int neighbour = cell + offset;
+                    if (labels[neighbour] != id)
+                        continue;
+                    int other = marks[neighbour] - stamp;
+                    if (other >= 0 && other < count) {
+                        int a = group(i);
+                        int b = group(other);
+                        if (a != b) {
+                            // the two sides are still joined, so they are searched together from now on
+                            groups[a] = b;
+                            open--;
+                        }
+                        continue;
+                    }
+                    marks[neighbour] = stamp + i;
+                    add(i, neighbour);
+                }
+                if (searchHeads[i] == searchTails[i] && isFinished(group(i), count)) {
+                    // the group has visited the whole of a region cut off from the other sides
+                    int newId = takeId();
+                    sizes[newId] = relabel(sources[i], id, newId);
+                    sizes[id] -= sizes[newId];
+                    open--;
+                }
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINEST))
+            LOGGER.finest("Split from " + count + " sides checked after visiting " + visited + " cells.");
+    }
+
+    /**
+     * Gets the group a search belongs to.
+     * @param search the index of the search.
+     * @return the index of the search that represents its group.
+     */
+    private int group(int search) {
+        while (groups[search] != search)
+            search = groups[search];
+        return search;
+    }
+
+    /**
+     * Returns {@code true} if every search in a group has run out of cells to visit.
+     * @param group the index of the search that represents the group.
+     * @param count the number of searches.
+     * @return true if the group has finished, false otherwise.
+     */
+    private boolean isFinished(int group, int count) {
+        for (int i = 0; i < count; i++) {
+            if (group(i) == group && searchHeads[i] != searchTails[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a cell to a search, growing it if it is full.
+     * @param search the index of the search.
+     * @param cell the packed cell.
+     */
+    private void add(int search, int cell) {
+        if (searchTails[search] == searches[search].length)
+            searches[search] = Arrays.copyOf(searches[search], searchTails[search] * 2);
+        searches[search][searchTails[search]++] = cell;
+    }
+
+    /**
+     * Relabels every cell joined to a cell that has the same label.
+     * @param cell the packed cell to start from.
+     * @param from the label of the cells to relabel.
+     * @param to the label to give them.
+     * @return the number of cells relabelled.
+     */
+    private int relabel(int cell, int from, int to) {
+        int head = 0;
+        int tail = 0;
+        labels[cell] = to;
+        queue[tail++] = cell;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int offset : offsets) {
+                int neighbour = current + offset;
+                if (labels[neighbour] == from) {
+                    labels[neighbour] = to;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Takes an unused id for a new region.
+     * @return the id.
+     */
+    private int takeId() {
+        return freeIds[--freeIdCount];
+    }
+
+    /**
+     * Gets the move from a cell to its neighbour in the given direction.
+     * @param direction the direction to move in.
+     * @return the offset to add to the packed cell.
+     */
+    private int offset(Direction direction) {
+        return switch (direction) {
+            case UP -> offsets[0];
+            case DOWN -> offsets[1];
+            case LEFT -> offsets[2];
+            case RIGHT -> offsets[3];
+        };
+    }
+
+    /**
+     * Allocates the arrays for a grid, unless they were already allocated for a grid of the same size.
+     * @param grid the grid of the current game.
+     */
+    private void resize(Grid grid) {
+        if (this.grid != null && this.grid.rows() == grid.rows() && this.grid.cols() == grid.cols()) {
+            this.grid = grid;
+            return;
+        }
+        int stride = grid.stride();
+        offsets = new int[] {-stride, stride, -1, 1};
+        ring = new int[] {-stride, -stride + 1, 1, stride + 1, stride, stride - 1, -1, -stride - 1};
+        labels = new int[grid.packedSize()];
+        marks = new int[grid.packedSize()];
+        stamp = 0;
+        queue = new int[grid.area()];
+        // every open cell could be a region of its own
+        sizes = new int[grid.area() + 1];
+        freeIds = new int[grid.area()];
+        this.grid = grid;
+    }
+}
@@ -0,0 +1,198 @@
+package game.core;
+
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.awt.Point;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A compact recording of a game that can be re-simulated headless. Games are deterministic given their settings, seed,
+ * and direction inputs, so a {@code Replay} only stores those and recreates everything else by playing the game again
+ * with {@link #play()}.
+ * <p>
+ *     Replays are recorded by a {@link GameEngine} with recording enabled (see {@link GameEngine#setRecording(boolean)})
+ *     and stored in a binary format made up of a fixed size header with the settings and seed, followed by one
+ *     variable length integer per direction input. Ticks without inputs take no space, so a replay usually takes
+ *     well under a byte per tick.
+ * </p>
+ */
+public final class Replay {
+    /** Identifies the start of a replay. Spells {@code SNKR} in ASCII. */
+    private static final int MAGIC = 0x534E4B52;
+
+    /** The version of the replay format. */
+    private static final byte VERSION = 1;
+
+    /** The most bytes of direction inputs a replay may hold, so a corrupt length cannot exhaust memory. */
+    private static final int MAX_INPUT_SIZE = 1 << 26;
+
+    /** The directions, indexed by the value they are encoded as. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The settings the game was started with. */
+    private final GameConfig config;
+
+    /** The seed the game was started with. */
+    private final long seed;
+
+    /** The number of ticks the game was played for. */
+    private final int ticks;
+
+    /** Whether the game was ended by the player rather than by a collision or a win. */
+    private final boolean endedByPlayer;
+
+    /** The direction inputs, encoded as described in {@link ReplayRecorder}. */
+    private final byte[] inputs;
+
+    /**
+     * Creates a {@code Replay} from the recorded parts of a game.
+     * @param config the settings the game was started with.
+     * @param seed the seed the game was started with.
+     * @param ticks the number of ticks the game was played for.
+     * @param endedByPlayer whether the game was ended by the player.
+     * @param inputs the encoded direction inputs. Must not be modified after being passed in.
+     */
+    Replay(GameConfig config, long seed, int ticks, boolean endedByPlayer, byte[] inputs) {
+        this.config = config;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.endedByPlayer = endedByPlayer;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Re-simulates the game on a new headless {@link GameEngine} as fast as possible.
+     * @return the result of the game, which matches the result of the game when it was recorded.
+     * @throws IllegalStateException if the encoded inputs are corrupt.
+     */
+    public GameResult play() {
+        GameEngine engine = new GameEngine();
+        engine.startGame(config, seed);
+        TickOutcome outcome = TickOutcome.IDLE;
+        int tick = 0;
+        int pos = 0;
+        while (pos < inputs.length) {
+            // read a value 7 bits at a time until a byte without the high bit set
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos == inputs.length || shift > 28)
+                    throw new IllegalStateException("Corrupt replay input at byte " + pos);
+                b = inputs[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            for (int gap = value >>> 2; gap > 0; gap--, tick++)
+                outcome = engine.step(null);
+            engine.changeDirection(DIRECTIONS[value & 3]);
+        }
+        for (; tick < ticks; tick++)
+            outcome = engine.step(null);
+        // the player can only end a running game, so a game that already ended did so by itself
+        if (endedByPlayer && !engine.hasEnded())
+            engine.endGame();
+        return new GameResult(seed, engine.getScore(), engine.getSnake().length(), ticks, outcome);
+    }
+
+    /**
+     * Writes the replay to the given stream. The stream is not closed.
+     * @param out the stream to write to.
+     * @throws IOException if the replay could not be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(config.numRows());
+        data.writeInt(config.numCols());
+        data.writeInt(config.delay());
+        data.writeInt(config.cellSize());
+        data.writeInt(config.snakeInitialLength());
+        Point snakePos = config.snakeInitialPosition();
+        data.writeInt(snakePos.x);
+        data.writeInt(snakePos.y);
+        Point foodPos = config.foodInitialPosition();
+        data.writeInt(foodPos.x);
+        data.writeInt(foodPos.y);
+        data.writeLong(seed);
+        data.writeInt(ticks);
+        data.writeBoolean(endedByPlayer);
+        data.writeInt(inputs.length);
+        data.write(inputs);
+        data.flush();
+    }
+
+    /**
+     * Reads a replay written by {@link #writeTo(OutputStream)} from the given stream. The stream is not closed.
+     * @param in the stream to read from.
+     * @return the replay.
+     * @throws IOException if the replay could not be read or is not in the replay format.
+     */
+    public static Replay readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a replay");
+        byte version = data.readByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported replay version " + version);
+        GameConfig config;
+        try {
+            config = new GameConfig(data.readInt(), data.readInt(), data.readInt(), data.readInt(), data.readInt(),
+                    new Point(data.readInt(), data.readInt()), new Point(data.readInt(), data.readInt()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Replay has invalid settings", e);
+        }
+        long seed = data.readLong();
+        int ticks = data.readInt();
+        boolean endedByPlayer = data.readBoolean();
+        int length = data.readInt();
+        if (ticks < 0 || length < 0)
+            throw new IOException("Replay has a negative length");
+        if (length > MAX_INPUT_SIZE)
+            throw new IOException("Replay inputs too long (" + length + " bytes)");
+        // read the inputs as they arrive rather than allocating the stored length up front
+        byte[] inputs = data.readNBytes(length);
+        if (inputs.length != length)
+            throw new EOFException("Replay ended after " + inputs.length + " of " + length + " input bytes");
+        return new Replay(config, seed, ticks, endedByPlayer, inputs);
+    }
+
+    /**
+     * Gets the settings the game was started with.
+     * @return the settings of the game.
+     */
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the seed the game was started with.
+     * @return the seed of the game.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of ticks the game was played for.
+     * @return the number of ticks.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of bytes used to store the direction inputs, not including the header.
+     * @return the size of the inputs in bytes.
+     */
+    public int inputSize() {
+        return inputs.length;
+    }
+}
@@ -0,0 +1,96 @@
+package game.core;
+
+import game.utils.Direction;
+import game.utils.GameConfig;
+
+import java.util.Arrays;
+
+/**
+ * Records the direction inputs of a game as it is played so it can be turned into a {@link Replay}. Each input is
+ * stored as a single variable length integer holding the number of ticks since the previous input and the direction,
+ * so most inputs take a single byte and ticks without inputs take no space at all.
+ */
+final class ReplayRecorder {
+    /** The settings the game was started with. */
+    private final GameConfig config;
+
+    /** The seed the game was started with. */
+    private final long seed;
+
+    /** The encoded inputs. Only the first {@code size} bytes are used. */
+    private byte[] inputs;
+
+    /** The number of bytes of {@code inputs} used. */
+    private int size;
+
+    /** The number of ticks played so far. */
+    private int ticks;
+
+    /** The tick the last input was recorded on. */
+    private int lastInputTick;
+
+    /** Whether the game was ended by the player rather than by a collision or a win. */
+    private boolean endedByPlayer;
+
+    /**
+     * Creates a {@code ReplayRecorder} for a game started with the given settings and seed.
+     * @param config the settings the game was started with.
+     * @param seed the seed the game was started with.
+     */
+    ReplayRecorder(GameConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+        inputs = new byte[64];
+        size = 0;
+        ticks = 0;
+        lastInputTick = 0;
+        endedByPlayer = false;
+    }
+
+    /**
+     * Records a direction input passed to {@link Snake#changeDirection(Direction)} before the next tick.
+     * @param direction the direction input.
+     */
+    void input(Direction direction) {
+        int value = (ticks - lastInputTick) << 2 | direction.ordinal();
+        lastInputTick = ticks;
+        // write the value 7 bits at a time, setting the high bit of every byte but the last
+        while ((value & ~0x7F) != 0) {
+            append((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        append((byte) value);
+    }
+
+    /**
+     * Records that the game advanced by a tick.
+     */
+    void tick() {
+        ticks++;
+    }
+
+    /**
+     * Records that the game was ended by the player.
+     */
+    void end() {
+        endedByPlayer = true;
+    }
+
+    /**
+     * Creates a {@code Replay} of the game recorded so far.
+     * @return the replay of the game.
+     */
+    Replay toReplay() {
+        return new Replay(config, seed, ticks, endedByPlayer, Arrays.copyOf(inputs, size));
+    }
+
+    /**
+     * Appends a byte to the encoded inputs, growing the buffer if it is full.
+     * @param b the byte to append.
+     */
+    private void append(byte b) {
+        if (size == inputs.length)
+            inputs = Arrays.copyOf(inputs, size * 2);
+        inputs[size++] = b;
+    }
+}
@@ -2,11 +2,13 @@ package game.core;
 
 import game.LoggerSetup;
 import game.utils.Constants;
+import game.utils.GameConfig;
 import game.utils.Direction;
 
 import java.awt.Point;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -14,6 +16,11 @@ import java.util.logging.Logger;
  * of the snake within the current game loop. It can only change directions once per frame so the {@code nextDirection}
  * is queued until the next frame begins. Inputs can be buffered (multiple entered per frame), allowing for the game
  * to feel more responsive.
+ * <p>
+ *     The {@code body} is stored as packed cell indices (see {@link Grid}) in a circular buffer, so moving and growing
+ *     the snake take constant time and do not allocate, regardless of its length. The cells the body occupies are
+ *     also kept in an {@link Occupancy} bitmap, so checking whether a cell is part of the snake takes constant time.
+ * </p>
  */
 public class Snake {
     /**
@@ -23,9 +30,40 @@ public class Snake {
     private static final Logger LOGGER = LoggerSetup.getLogger(Snake.class.getName());
 
     /**
-     * A List representing the points on the grid the snake's body occupies.
+     * The grid the snake moves on. Used to pack and unpack the cells of the {@code body}.
      */
-    private final List<Point> body;
+    private final Grid grid;
+
+    /**
+     * A circular buffer of packed cell indices representing the cells on the grid the snake's body occupies. The head
+     * is stored at index {@code head} and the rest of the body follows it, wrapping around the end of the array.
+     */
+    private final int[] body;
+
+    /**
+     * The index of the head within the {@code body} buffer.
+     */
+    private int head;
+
+    /**
+     * The number of cells the snake's body occupies.
+     */
+    private int length;
+
+    /**
+     * The cells of the grid occupied by the {@code body}. Kept up to date as the snake moves and grows.
+     */
+    private final Occupancy occupancy;
+
+    /**
+     * Whether the head moved onto a cell already occupied by the body on the last move.
+     */
+    private boolean selfCollided;
+
+    /**
+     * A read-only view of the {@code body} as a list of points. See {@link #getSnake()}.
+     */
+    private final List<Point> bodyView;
 
     /**
      * Used to determine which direction the snake is currently moving.
@@ -42,31 +80,45 @@ public class Snake {
      */
     private Direction bufferDirection;
     /**
-     * A {@code Point} used to represent the tail from the previous frame. This is added to the end of the snake when it
-     * grows and when the snake moves backwards a frame when the game ends.
+     * The packed cell index used to represent the tail from the previous frame. This is added to the end of the snake
+     * when it grows and when the snake moves backwards a frame when the game ends.
      */
-    private Point oldTail;
+    private int oldTail;
 
     /**
-     * Initializes a {@code snake} in a game ready state based on the values in the {@link Constants} class by creating
-     * a list of points to represent the {@code body} and setting its starting direction.
+     * Initializes a {@code snake} in a game ready state based on the values in the {@link Constants} class.
      */
     Snake() {
-        Point startPosition = Constants.SNAKE_INITIAL_POSITION;
-        int initialLength = Constants.SNAKE_INITIAL_LENGTH;
-        // init the body arraylist
-        body = new ArrayList<>();
-        // add the start position as the head
-        body.add(startPosition);
+        this(GameConfig.DEFAULT);
+    }
+
+    /**
+     * Initializes a {@code snake} in a game ready state on a grid of the size given by the {@code config} by filling
+     * the {@code body} buffer and setting its starting direction.
+     * @param config the settings of the current game, which determine the grid size, starting position and length.
+     */
+    Snake(GameConfig config) {
+        grid = new Grid(config.numRows(), config.numCols());
+        Point startPosition = config.snakeInitialPosition();
+        int initialLength = config.snakeInitialLength();
+        // one extra slot so the new head can be pushed before the tail is popped on a full board
+        body = new int[grid.area() + 1];
+        occupancy = new Occupancy(grid);
+        head = 0;
+        length = 0;
+        // add the start position as the head, followed by the rest of the body
+        for(int i = 0; i < initialLength; i++) {
+            body[length] = grid.cell(startPosition.x - i, startPosition.y);
+            occupancy.occupy(body[length++]);
+        }
+        selfCollided = false;
+        oldTail = body[length - 1];
+        bodyView = new BodyView();
         // Set the direction and nextDirection
         direction = Direction.RIGHT;
         nextDirection = null;
         bufferDirection = null;
-        // add the rest of the body to the body array
-        for(int i = 1; i < initialLength; i++) {
-            body.add(new Point(startPosition.x - i, startPosition.y));
-        }
-        LOGGER.config("Snake initialized at [x=" + startPosition.x + ", y=" + startPosition.y + "] " +
+        LOGGER.fine("Snake initialized at [x=" + startPosition.x + ", y=" + startPosition.y + "] " +
                             "with length " + initialLength + '.');
     }
 
@@ -78,31 +130,37 @@ public class Snake {
         // Update direction as it's now the start of a new frame
         updateDirection();
 
-        // Create a copy of the head to become the new head
-        Point newHead = new Point(body.get(0));
-
-        // Change the new head's position based on the direction variable
+        // Find the new head's position based on the direction variable
+        int newHead = body[head];
         switch (direction) {
-            case UP -> newHead.y--;
-            case DOWN -> newHead.y++;
-            case LEFT -> newHead.x--;
-            case RIGHT -> newHead.x++;
+            case UP -> newHead -= grid.stride();
+            case DOWN -> newHead += grid.stride();
+            case LEFT -> newHead--;
+            case RIGHT -> newHead++;
         }
 
-        // Add new head to the front of the list
-        body.add(0, newHead);
-        // Remove the tail and store in oldTail
-        oldTail = body.remove(body.size() - 1);
-        LOGGER.finest("Snake moved to [" + newHead.x + ", " + newHead.y + "].");
+        // Push the new head onto the front of the buffer
+        head = wrap(head - 1);
+        body[head] = newHead;
+        // Pop the tail and store in oldTail
+        oldTail = body[wrap(head + length)];
+        // Free the tail before occupying the head, as the head may move into the cell the tail just left
+        occupancy.free(oldTail);
+        selfCollided = !occupancy.occupy(newHead);
+        if (LOGGER.isLoggable(Level.FINEST))
+            LOGGER.finest("Snake moved to [" + grid.x(newHead) + ", " + grid.y(newHead) + "].");
     }
 
     /**
      * Increase the length of the snake by adding the tail from the previous frame to the {@code body}.
      */
     public void grow() {
-        // Add the old tail to the end of the list
-        body.add(oldTail);
-        LOGGER.finer("Snake grew to a length of " + body.size() + ".");
+        // Add the old tail to the end of the buffer
+        body[wrap(head + length)] = oldTail;
+        occupancy.occupy(oldTail);
+        length++;
+        if (LOGGER.isLoggable(Level.FINER))
+            LOGGER.finer("Snake grew to a length of " + length + ".");
     }
 
     /**
@@ -151,10 +209,20 @@ public class Snake {
                 }
             }
         }
+        if (!LOGGER.isLoggable(Level.FINEST))
+            return;
         if(queue)
-            LOGGER.finer("Direction change queued to " + direction + ".");
+            LOGGER.finest("Direction change queued to " + direction + ".");
         else
-            LOGGER.finer("Opposite direction attempted (" + direction + " -> " + newDirection + ").");
+            LOGGER.finest("Opposite direction attempted (" + direction + " -> " + newDirection + ").");
+    }
+
+    /**
+     * Returns {@code true} if a change of direction is queued for the next frame.
+     * @return true if {@code nextDirection} has a value, false otherwise.
+     */
+    boolean hasQueuedDirection() {
+        return nextDirection != null;
     }
 
     /**
@@ -167,7 +235,8 @@ public class Snake {
             direction = nextDirection;
             nextDirection = bufferDirection;
             bufferDirection = null;
-            LOGGER.finest("Snake changed direction to " + direction + ".");
+            if (LOGGER.isLoggable(Level.FINEST))
+                LOGGER.finest("Snake changed direction to " + direction + ".");
         }
     }
 
@@ -176,16 +245,138 @@ public class Snake {
      * And we don't want to show the snake phased inside the wall on the final frame.
      */
     public void moveBackwards() {
-        // Add oldTail to the end of list and remove the head.
-        body.add(oldTail);
-        body.remove(0);
+        // Add oldTail to the end of the buffer and remove the head. The head's cell stays occupied if it was part of
+        // the body.
+        if (!selfCollided)
+            occupancy.free(body[head]);
+        selfCollided = false;
+        body[wrap(head + length)] = oldTail;
+        occupancy.occupy(oldTail);
+        head = wrap(head + 1);
     }
 
     /**
-     * Gets the {@code List<Point>} representing the {@code body} of the snake.
+     * Gets a read-only {@code List<Point>} view of the {@code body} of the snake, starting at the head. The view
+     * reflects later moves of the snake and creates a new {@code Point} for each element retrieved, so the packed
+     * accessors such as {@link #getCell(int)} should be preferred where performance matters.
      * @return a list representing the snake.
      */
     public List<Point> getSnake() {
-        return body;
+        return bodyView;
+    }
+
+    /**
+     * Gets the number of cells the snake's body occupies.
+     * @return the length of the snake.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gets the packed cell index of a segment of the snake's body.
+     * @param index the index of the segment, where {@code 0} is the head.
+     * @return the packed cell index of the segment.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #length()}.
+     */
+    public int getCell(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        return body[wrap(head + index)];
+    }
+
+    /**
+     * Gets the packed cell index of the head of the snake.
+     * @return the packed cell index of the head.
+     */
+    public int getHeadCell() {
+        return body[head];
+    }
+
+    /**
+     * Gets the column of the head of the snake.
+     * @return the x coordinate of the head.
+     */
+    public int getHeadX() {
+        return grid.x(body[head]);
+    }
+
+    /**
+     * Gets the row of the head of the snake.
+     * @return the y coordinate of the head.
+     */
+    public int getHeadY() {
+        return grid.y(body[head]);
+    }
+
+    /**
+     * Returns {@code true} if the given packed cell is occupied by the snake's body.
+     * @param cell the packed cell index to check.
+     * @return true if the snake occupies the cell, false otherwise.
+     */
+    public boolean isOccupied(int cell) {
+        return occupancy.isOccupied(cell);
+    }
+
+    /**
+     * Returns {@code true} if the head moved onto a cell already occupied by the body on the last move.
+     * @return true if the snake has collided with itself, false otherwise.
+     */
+    public boolean hasCollidedWithSelf() {
+        return selfCollided;
+    }
+
+    /**
+     * Gets the {@code Occupancy} bitmap of the cells the snake's body occupies. The bitmap must not be modified.
+     * @return the occupancy of the snake.
+     */
+    public Occupancy getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Gets the {@code grid} the snake moves on.
+     * @return the grid of the snake.
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Wraps an index into the bounds of the {@code body} buffer.
+     * @param index an index that is at most one buffer length out of bounds.
+     * @return the equivalent index within the buffer.
+     */
+    private int wrap(int index) {
+        if (index < 0)
+            return index + body.length;
+        if (index >= body.length)
+            return index - body.length;
+        return index;
+    }
+
+    /**
+     * A read-only view of the {@code body} buffer as a list of points, starting at the head.
+     */
+    private class BodyView extends AbstractList<Point> {
+        /**
+         * Creates a new {@code Point} for the segment at the given index.
+         * @param index the index of the segment, where {@code 0} is the head.
+         * @return the position of the segment.
+         */
+        @Override
+        public Point get(int index) {
+            int cell = getCell(index);
+            return new Point(grid.x(cell), grid.y(cell));
+        }
+
+        /**
+         * Gets the length of the snake.
+         * @return the number of segments.
+         */
+        @Override
+        public int size() {
+            return length;
+        }
     }
 }
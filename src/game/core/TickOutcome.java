@@ -0,0 +1,21 @@
+package game.core;
+
+/**
+ * Describes what happened during a single tick of the {@link GameEngine}.
+ */
+public enum TickOutcome {
+    /** The game was not running, so nothing was updated. */
+    IDLE,
+
+    /** The snake moved without eating or colliding with anything. */
+    MOVED,
+
+    /** The snake ate the food, grew, and a new food was spawned. */
+    ATE,
+
+    /** The snake collided with the wall or itself and the game ended. */
+    COLLIDED,
+
+    /** The snake ate the last food and filled the whole grid, so the game ended with a perfect score. */
+    WON
+}
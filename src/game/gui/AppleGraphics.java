@@ -6,11 +6,17 @@ import game.utils.Constants;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Used to draw the apple onto the game grid. The apple is drawn using {@link Graphics2D} and will pulsate as the timer
- * runs.
+ * Used to draw the apple onto the game grid. The apple is drawn using {@link Graphics2D} and pulses once per tick.
+ * <p>
+ *     The apple only ever has a few sizes as it pulses, so each size is drawn once into a sprite when the cell size
+ *     changes and every frame draws one sprite. Each sprite covers the apple's cell and the cells around it, as the
+ *     apple grows past its cell and its stem and leaf reach into the cell above.
+ * </p>
  */
 public class AppleGraphics {
     /**
@@ -18,10 +24,31 @@ public class AppleGraphics {
      * @hidden
      */
     private static final Logger LOGGER = LoggerSetup.getLogger(AppleGraphics.class.getName());
+
+    /** The number of pixels the apple grows by each tick. */
+    private static final int GROWTH = 2;
+
+    /** The number of pixels the apple can grow past its cell before it starts shrinking. */
+    private static final int MAX_GROWTH = 5;
+
+    /** The color of the apple's shadow. */
+    private static final Color SHADOW_COLOR = new Color(161, 206, 78);
+
+    /** The color of the apple's body. */
+    private static final Color BODY_COLOR = new Color(251, 79, 34);
+
+    /** The color of the apple's stem. */
+    private static final Color STEM_COLOR = new Color(165, 120, 84);
+
+    /** The color of the apple's leaf. */
+    private static final Color LEAF_COLOR = new Color(83, 214, 45);
+
+    /** The color of the glare on the apple. */
+    private static final Color GLARE_COLOR = new Color(255, 128, 101);
     /**
-     * Initial size of the apple.
+     * Initial size of the apple, which is the size of a cell of the grid.
      */
-    private final int INITIAL_SIZE = Constants.CELL_SIZE;
+    private int initialSize;
     /**
      * Current {@code size} of the apple.
      */
@@ -31,82 +58,134 @@ public class AppleGraphics {
      * it's {@code false}.
      */
     private boolean growing;
+    /**
+     * The sprite of the apple at each size it pulses through, from smallest to largest, or {@code null} if they have
+     * not been drawn yet. Each sprite is three cells wide and tall, with the apple's cell in the middle.
+     */
+    private BufferedImage[] sprites;
 
     /**
      * Creates a new {@code AppleGraphics} object that is initially growing.
      */
     AppleGraphics() {
         growing = true;
-        size = INITIAL_SIZE;
+        initialSize = Constants.CELL_SIZE;
+        size = initialSize;
     }
 
     /**
-     * Draws a new apple on the screen that alternates between growing and shrinking as determined by the timer.
+     * Draws the apple on the screen at its current size in the pulse.
      * @param g2d a reference to the graphics of the {@link GameGridPanel}.
      * @param food a reference to the current {@code Food} object.
+     * @param cellSize the size in pixels of each cell of the grid. If it has changed, the apple restarts its growth.
      */
-    public void drawApple(Graphics2D g2d, Food food) {
-        // Enable anti-aliasing for smoother edges
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    public void drawApple(Graphics2D g2d, Food food, int cellSize) {
+        if (cellSize != initialSize) {
+            initialSize = cellSize;
+            size = cellSize;
+            growing = true;
+            sprites = null;
+        }
+        if (sprites == null)
+            createSprites(g2d);
 
-        int originalX = food.getPosition().x * Constants.CELL_SIZE;
-        int originalY = food.getPosition().y * Constants.CELL_SIZE;
+        // the sprite extends a cell past the apple's cell on every side
+        int originalX = food.getPosition().x * cellSize;
+        int originalY = food.getPosition().y * cellSize;
+        g2d.drawImage(sprites[(size - initialSize) / GROWTH], originalX - cellSize, originalY - cellSize, null);
 
-        // Calculate new top-left coordinates to keep the apple centered
-        int x = originalX + (INITIAL_SIZE - size) / 2;
-        int y = originalY + (INITIAL_SIZE - size) / 2;
+        if (LOGGER.isLoggable(Level.FINEST))
+            LOGGER.finest("Painted a " + (growing ? "growing" : "shrinking") + " apple at [x="
+                    + food.getPosition().x + ",y=" + food.getPosition().y + "].");
+    }
 
+    /**
+     * Advances the apple to its next size, alternating between growing and shrinking. Called once per tick, so the
+     * apple pulses at the same rate however often it is drawn.
+     */
+    void pulse() {
+        // Update the apple's size to create a pulsating effect
+        if (growing) {
+            size += GROWTH;
+        } else {
+            size -= GROWTH;
+        }
+
+        // Reverse the growing/shrinking direction if limits are reached
+        if (size >= initialSize + MAX_GROWTH) {
+            growing = false;
+        } else if (size <= initialSize) {
+            growing = true;
+        }
+    }
+
+    /**
+     * Draws a sprite of the apple at every size it pulses through for the current cell size.
+     * @param g2d the graphics being drawn to, used to create sprites in a format it can draw quickly.
+     */
+    private void createSprites(Graphics2D g2d) {
+        int frames = (MAX_GROWTH + GROWTH - 1) / GROWTH + 1;
+        sprites = new BufferedImage[frames];
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+        for (int i = 0; i < frames; i++) {
+            int frameSize = initialSize + i * GROWTH;
+            sprites[i] = gc.createCompatibleImage(3 * initialSize, 3 * initialSize, Transparency.TRANSLUCENT);
+            Graphics2D g = sprites[i].createGraphics();
+            try {
+                // Enable anti-aliasing for smoother edges
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                // Calculate new top-left coordinates to keep the apple centered in the middle cell
+                int offset = initialSize + (initialSize - frameSize) / 2;
+                paintApple(g, offset, offset, frameSize);
+            } finally {
+                g.dispose();
+            }
+        }
+        LOGGER.fine("Drew " + frames + " apple sprites for a cell size of " + initialSize + ".");
+    }
+
+    /**
+     * Paints the apple into a sprite.
+     * @param g the graphics of the sprite.
+     * @param x the x coordinate of the top left of the apple's body.
+     * @param y the y coordinate of the top left of the apple's body.
+     * @param size the size of the apple's body.
+     */
+    private static void paintApple(Graphics2D g, int x, int y, int size) {
         // Shadow
-        g2d.setColor(new Color(161, 206, 78));
-        g2d.fillOval(x, y + size / 3, size, size);
+        g.setColor(SHADOW_COLOR);
+        g.fillOval(x, y + size / 3, size, size);
 
         // Body
-        g2d.setColor(new Color(251, 79, 34));
-        g2d.fillOval(x, y, size, size);
+        g.setColor(BODY_COLOR);
+        g.fillOval(x, y, size, size);
 
         // Stem
         int stemX = x + size / 2 - size / 20;
         int stemY = y - size / 5;
         int stemWidth = size / 10;
         int stemHeight = size / 5;
-        g2d.setColor(new Color(165, 120, 84));
-        g2d.fillRect(stemX, stemY, stemWidth, stemHeight);
+        g.setColor(STEM_COLOR);
+        g.fillRect(stemX, stemY, stemWidth, stemHeight);
 
         // Leaf
         int leafX = stemX + stemWidth - 1;
         int leafY = stemY - 4;
         int leafWidth = size / 2;
         int leafHeight = size / 5;
-        g2d.setColor(new Color(83, 214, 45));
-        g2d.fillArc(leafX, leafY, leafWidth, leafHeight, 0, 180);
-        g2d.fillArc(leafX, leafY - 1, leafWidth, leafHeight, 180, 180);
+        g.setColor(LEAF_COLOR);
+        g.fillArc(leafX, leafY, leafWidth, leafHeight, 0, 180);
+        g.fillArc(leafX, leafY - 1, leafWidth, leafHeight, 180, 180);
 
         // Glare
-        AffineTransform ogTrans = g2d.getTransform();
-        g2d.setColor(new Color(255, 128, 101));
+        AffineTransform ogTrans = g.getTransform();
+        g.setColor(GLARE_COLOR);
         int glareX = x + size / 7;
         int glareY = y + size / 7;
         int glareWidth = size / 4;
         int glareHeight = size / 3;
-        g2d.rotate(0.5, glareX + glareWidth / 2.0, glareY + glareHeight / 2.0);
-        g2d.fillOval(glareX, glareY, glareWidth, glareHeight);
-        g2d.setTransform(ogTrans);
-
-        // Update the apple's size to create a pulsating effect
-        if (growing) {
-            size += 2;
-        } else {
-            size -= 2;
-        }
-
-        // Reverse the growing/shrinking direction if limits are reached
-        if (size >= INITIAL_SIZE + 5) {
-            growing = false;
-        } else if (size <= INITIAL_SIZE) {
-            growing = true;
-        }
-
-        LOGGER.finest("Painted a " + (growing ? "growing" : "shrinking") + " apple at [x="
-                + food.getPosition().x + ",y=" + food.getPosition().y + "].");
+        g.rotate(0.5, glareX + glareWidth / 2.0, glareY + glareHeight / 2.0);
+        g.fillOval(glareX, glareY, glareWidth, glareHeight);
+        g.setTransform(ogTrans);
     }
 }
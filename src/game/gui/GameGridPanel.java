@@ -1,16 +1,39 @@
 package game.gui;
 
 import game.LoggerSetup;
+import game.core.ChangedCells;
 import game.core.GameEngine;
+import game.core.Grid;
+import game.core.Snake;
 import game.utils.Constants;
+import game.utils.GameConfig;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.util.logging.Logger;
 
 /**
  * A custom JPanel that consists of a padding panel to add spacing around the grid and a grid that is repainted every
  * frame to represent the current state of the game.
+ * <p>
+ *     The checkerboard behind the snake and apple never changes during a game, so it is drawn once into an image that
+ *     is copied onto the grid every frame. The image is only drawn again when the number of rows or columns or the
+ *     cell size changes.
+ * </p>
+ * <p>
+ *     Each frame only the cells the {@link GameEngine} reports as changed, along with the pulsing apple, are repainted
+ *     with {@link #repaintChanged()}. Swing merges the rectangles into a single paint, and the snake skips every
+ *     segment outside the area being painted.
+ * </p>
+ * <p>
+ *     With active rendering, the grid is instead drawn onto a {@link Canvas} by the game loop with
+ *     {@link #render(double)} as often as the display refreshes, independent of Swing's painting. The snake is drawn
+ *     part way between where it was on the last two ticks, so it moves smoothly even though the game only ticks a few
+ *     times a second. The {@link GameEngine} is locked while a frame is drawn, so it must also be locked while it is
+ *     changed.
+ * </p>
  */
 public class GameGridPanel extends JPanel {
 
@@ -20,6 +43,12 @@ public class GameGridPanel extends JPanel {
      */
     private static final Logger LOGGER = LoggerSetup.getLogger(GameGridPanel.class.getName());
 
+    /** The color of the light cells of the checkerboard. */
+    private static final Color LIGHT_CELL = new Color(170, 215, 81);
+
+    /** The color of the dark cells of the checkerboard. */
+    private static final Color DARK_CELL = new Color(162, 209, 73);
+
     /**
      * A reference to the {@code gameEngine} of the current game loop.
      */
@@ -40,12 +69,60 @@ public class GameGridPanel extends JPanel {
      */
     private final SnakeGraphics snkg;
 
+    /**
+     * The checkerboard drawn for the current board, or {@code null} if it has not been drawn yet.
+     */
+    private BufferedImage board;
+
+    /**
+     * The configuration {@code board} was drawn for.
+     */
+    private GameConfig boardConfig;
+
+    /**
+     * The packed cell the apple was in when the grid was last repainted.
+     */
+    private int appleCell;
+
+    /**
+     * The canvas the grid is actively rendered onto, or {@code null} if the grid is painted by Swing.
+     */
+    private final Canvas canvas;
+
+    /**
+     * The snake as of the previous tick, used to tell whether {@code fromHead} and {@code fromTail} belong to the
+     * current game.
+     */
+    private Snake fromSnake;
+
+    /**
+     * The packed cell the head of the snake was in on the previous tick.
+     */
+    private int fromHead;
+
+    /**
+     * The packed cell the tail of the snake was in on the previous tick.
+     */
+    private int fromTail;
+
     /**
      * Creates a new {@code GameGridPanel} that updates based off the {@code GameEngine} passed.
      * @param gameEngine a reference to the current {@code GameEngine}.
+     * @param activeRendering true to draw the grid onto a canvas with {@link #render(double)}, false to let Swing
+     *                        paint it.
      */
-    GameGridPanel(GameEngine gameEngine) {
+    GameGridPanel(GameEngine gameEngine, boolean activeRendering) {
         this.gameEngine = gameEngine;
+        if (activeRendering) {
+            canvas = new Canvas();
+            // the game loop draws every frame, so Swing never needs to paint the canvas or give it focus
+            canvas.setIgnoreRepaint(true);
+            canvas.setFocusable(false);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+        } else {
+            canvas = null;
+        }
 
         paddingPanel = new JPanel(new BorderLayout());
         paddingPanel.setBorder(BorderFactory.createEmptyBorder(Constants.PADDING_SIZE, Constants.PADDING_SIZE,
@@ -55,6 +132,7 @@ public class GameGridPanel extends JPanel {
         paddingPanel.add(this, BorderLayout.CENTER);
         apg = new AppleGraphics();
         snkg = new SnakeGraphics();
+        appleCell = -1;
         LOGGER.config("Created new GameGridPanel.");
     }
 
@@ -67,26 +145,169 @@ public class GameGridPanel extends JPanel {
     }
 
     /**
-     * Draws the grid with alternating colors and draws the apple and snake. If the game has ended, draw the dead snake.
+     * Remembers where the snake is before the game ticks, so it can be drawn moving from there. The {@link GameEngine}
+     * must be locked.
+     */
+    void beforeTick() {
+        fromSnake = gameEngine.getSnake();
+        fromHead = fromSnake.getHeadCell();
+        fromTail = fromSnake.getCell(fromSnake.length() - 1);
+    }
+
+    /**
+     * Updates the grid after the game ticks. The apple pulses, and unless the grid is actively rendered, the cells
+     * that changed are repainted. The {@link GameEngine} must be locked.
+     */
+    void afterTick() {
+        apg.pulse();
+        if (canvas == null)
+            repaintChanged();
+        else
+            gameEngine.getChangedCells().clear();
+    }
+
+    /**
+     * Draws a frame onto the canvas and shows it. Does nothing if the grid is not actively rendered or is not on
+     * screen yet.
+     * @param alpha how far the game is from the last tick to the next, from {@code 0} to {@code 1}.
+     */
+    void render(double alpha) {
+        if (canvas == null || !canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0)
+            return;
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        if (strategy == null) {
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+            LOGGER.fine("Created buffer strategy for GameGridPanel.");
+        }
+        // the buffers can be lost at any time, such as when the display mode changes, in which case the frame is
+        // drawn again
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g2d.setColor(getBackground());
+                    g2d.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                    synchronized (gameEngine) {
+                        draw(g2d, alpha);
+                    }
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        // flush the frame to the screen now rather than when the window system gets to it
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Repaints the cells that have changed since the last frame, as reported by the {@link GameEngine}, and the apple,
+     * which pulses every frame. The whole grid is repainted if every cell may have changed, such as when a game starts
+     * or ends.
+     */
+    void repaintChanged() {
+        ChangedCells changed = gameEngine.getChangedCells();
+        int foodCell = gameEngine.getFood().getCell();
+        if (changed.isAll()) {
+            repaint();
+        } else {
+            Grid grid = gameEngine.getSnake().getGrid();
+            for (int i = 0; i < changed.size(); i++)
+                repaintCell(grid, changed.get(i), 0);
+            // the apple grows past its cell and its stem pokes into the cell above, so the cells around an eaten apple
+            // must be cleared as well
+            repaintCell(grid, foodCell, 1);
+            if (appleCell != foodCell)
+                repaintCell(grid, appleCell, 1);
+        }
+        appleCell = foodCell;
+        changed.clear();
+    }
+
+    /**
+     * Repaints a cell of the grid.
+     * @param grid the grid of the current game.
+     * @param cell the packed cell index.
+     * @param margin the number of cells around the cell to repaint as well.
+     */
+    private void repaintCell(Grid grid, int cell, int margin) {
+        int cellSize = gameEngine.getConfig().cellSize();
+        int size = (2 * margin + 1) * cellSize + 1;
+        repaint((grid.x(cell) - margin) * cellSize, (grid.y(cell) - margin) * cellSize, size, size);
+    }
+
+    /**
+     * Draws the grid with alternating colors and draws the apple and snake, unless the grid is actively rendered onto
+     * the canvas. If the game has ended, draw the dead snake.
      * @param g the {@code Graphics} object to protect that allows for only classes in the gui package to draw.
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+        if (canvas != null)
+            return;
+        draw((Graphics2D) g, 1);
+        LOGGER.finest("Repainted GameGridPanel.");
+    }
+
+    /**
+     * Draws the grid, the apple and the snake. If the game has ended, draw the dead snake.
+     * @param g2d the graphics to draw on.
+     * @param alpha how far the snake is from where it was on the previous tick to where it is now, from {@code 0} to
+     *              {@code 1}.
+     */
+    private void draw(Graphics2D g2d, double alpha) {
+        GameConfig config = gameEngine.getConfig();
+        int cellSize = config.cellSize();
+        g2d.drawImage(getBoard(config), 0, 0, null);
         // Enable anti-aliasing for smoother edges
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        for (int i = 0; i < Constants.NUM_ROWS; i += 1) {
-            for (int j = 0; j < Constants.NUM_COLS; j += 1) {
-                g2d.setColor((i + j) % 2 == 0 ? new Color(170, 215, 81) : new Color(162, 209, 73));
-                g2d.fillRect(j * Constants.CELL_SIZE, i * Constants.CELL_SIZE,
-                                  Constants.CELL_SIZE, Constants.CELL_SIZE);
+        apg.drawApple(g2d, gameEngine.getFood(), cellSize);
+        Snake snake = gameEngine.getSnake();
+        if (gameEngine.hasEnded()) {
+            snkg.drawDeadSnake(g2d, snake, gameEngine.getFood(), cellSize);
+        } else if (snake != fromSnake) {
+            snkg.drawSnake(g2d, snake, gameEngine.getFood(), cellSize);
+        } else {
+            snkg.drawSnake(g2d, snake, gameEngine.getFood(), cellSize, fromHead, fromTail, alpha);
+        }
+    }
+
+    /**
+     * Gets the checkerboard for the given configuration, drawing it again if the number of rows or columns or the cell
+     * size has changed since it was last drawn.
+     * @param config the configuration of the current game.
+     * @return an image of the checkerboard.
+     */
+    private BufferedImage getBoard(GameConfig config) {
+        if (board != null && boardConfig.numRows() == config.numRows() && boardConfig.numCols() == config.numCols()
+                && boardConfig.cellSize() == config.cellSize())
+            return board;
+        int cellSize = config.cellSize();
+        int width = config.numCols() * cellSize;
+        int height = config.numRows() * cellSize;
+        // an image in the same format as the screen is copied without being converted
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage image = gc != null ? gc.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(LIGHT_CELL);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setColor(DARK_CELL);
+            for (int i = 0; i < config.numRows(); i += 1) {
+                for (int j = (i + 1) % 2; j < config.numCols(); j += 2)
+                    g2d.fillRect(j * cellSize, i * cellSize, cellSize, cellSize);
             }
+        } finally {
+            g2d.dispose();
         }
-        apg.drawApple(g2d, gameEngine.getFood());
-        snkg.drawSnake(g2d, gameEngine.getSnake(), gameEngine.getFood());
-        if (gameEngine.hasEnded())
-            snkg.kill();
-        LOGGER.finest("Repainted GameGridPanel.");
+        if (board != null)
+            board.flush();
+        board = image;
+        boardConfig = config;
+        LOGGER.fine("Drew " + config.numRows() + "x" + config.numCols() + " board.");
+        return board;
     }
 }
@@ -47,7 +47,7 @@ public class GameOverDialog extends JDialog {
      * Initializes all settings for the {@code JDialog}.
      */
     private void initalizeDialog() {
-        setIconImage(Constants.ICON);
+        setIconImage(Constants.Images.ICON);
 
         setModal(true);
         setTitle("Game Over");
@@ -129,7 +129,9 @@ public class GameOverDialog extends JDialog {
      * Logic for the restart button. Starts a new game and closes this window.
      */
     private void restartGame() {
-        gameEngine.startGame(); // Restart game logic
+        synchronized (gameEngine) {
+            gameEngine.startGame(); // Restart game logic
+        }
         this.dispose(); // Close dialog
         LOGGER.finer("Play Again button pressed.");
     }
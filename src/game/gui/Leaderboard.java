@@ -5,7 +5,6 @@ import game.utils.Constants;
 import game.utils.HighScoreManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -20,6 +19,12 @@ public class Leaderboard {
      * @hidden
      */
     private static final Logger LOGGER = LoggerSetup.getLogger(GameOverDialog.class.getName());
+
+    /**
+     * The time in milliseconds between checks for changed highscores while the leaderboard is open.
+     */
+    private static final int REFRESH_DELAY = 500;
+
     /**
      * Reference to the {@code GameOverDialog} window. Used to open the game over dialog when Leaderboard is closed.
      */
@@ -65,15 +70,15 @@ public class Leaderboard {
         this.hsm = hsm;
         gameOverDialog = null;
         startMenuPanel = null;
-        DefaultTableModel table = createTable();
-        displayLeaderboard(table);
+        displayLeaderboard(new LeaderboardTableModel(hsm));
     }
 
     /**
-     * Creates a {@code JFrame} to display the leaderboard as a {@link JScrollPane}.
+     * Creates a {@code JFrame} to display the leaderboard as a {@link JScrollPane}. While it is open, the table is
+     * refreshed whenever highscores are saved.
      * @param model a table representing all highscore information.
      */
-    private void displayLeaderboard(DefaultTableModel model) {
+    private void displayLeaderboard(LeaderboardTableModel model) {
         // Create Table
         JTable table = new JTable(model);
 
@@ -89,10 +94,13 @@ public class Leaderboard {
         JFrame frame = new JFrame("Leaderboard");
         frame.add(scrollPane);
 
+        Timer refreshTimer = new Timer(REFRESH_DELAY, e -> model.refresh());
+
         // if the leaderboard is closed, open up previous window
         frame.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                refreshTimer.stop();
                 frame.dispose();
                 if(gameOverDialog != null)
                     gameOverDialog.refresh();
@@ -101,38 +109,12 @@ public class Leaderboard {
                 }
             }
         });
-        frame.setIconImage(Constants.ICON);
+        frame.setIconImage(Constants.Images.ICON);
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.pack();
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
         frame.setAlwaysOnTop(true);
+        refreshTimer.start();
     }
-
-    /**
-     * Generates a {@code DefaultTableModel} based on the data loaded by the {@code HighScoreManager}.
-     * @return a table with all the highscore data, ready to be displayed.
-     */
-    private DefaultTableModel createTable() {
-        // Column Names
-        String[] columnNames = {"Rank", "Name", "Score", "Date"};
-
-        // Convert high score list to a 2D array for the table model
-        String[][] data = new String[hsm.hslist().size()][4];
-        for (int i = 0; i < hsm.hslist().size(); i++) {
-            data[i][0] = String.valueOf(i + 1);
-            data[i][1] = hsm.hslist().get(i).name();
-            data[i][2] = String.valueOf(hsm.hslist().get(i).score());
-            data[i][3] = hsm.hslist().get(i).date().toString();
-        }
-
-        // Create Table Model that is not editable
-        return new DefaultTableModel(data, columnNames) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-    }
-
 }
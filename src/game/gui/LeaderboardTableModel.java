@@ -0,0 +1,125 @@
+package game.gui;
+
+import game.utils.HighScoreManager;
+import game.utils.HighScoreManager.HighScore;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * A read-only {@code TableModel} of the highscores in a {@link HighScoreManager}. Rows are fetched a page at a time as
+ * the table displays them, so the leaderboard opens instantly no matter how many highscores are saved. The rows are
+ * fetched again whenever {@link #refresh()} finds that the highscores have changed.
+ */
+public class LeaderboardTableModel extends AbstractTableModel {
+    /** Serialization version of the model. */
+    private static final long serialVersionUID = 1L;
+
+    /** The names of the columns. */
+    private static final String[] COLUMN_NAMES = {"Rank", "Name", "Score", "Date"};
+
+    /** The number of rows fetched at a time. */
+    private static final int PAGE_SIZE = 64;
+
+    /**
+     * Reference to the {@code HighScoreManager} the rows are fetched from.
+     */
+    private final HighScoreManager hsm;
+
+    /**
+     * The {@link HighScoreManager#version() version} of the highscores the rows were fetched from.
+     */
+    private long version;
+
+    /**
+     * The number of highscores when the rows were fetched.
+     */
+    private int rowCount;
+
+    /**
+     * The most recently fetched page of rows.
+     */
+    private List<HighScore> page;
+
+    /**
+     * The row of the first highscore in {@code page}.
+     */
+    private int pageStart;
+
+    /**
+     * Creates a new {@code LeaderboardTableModel} backed by the given {@code HighScoreManager}.
+     * @param hsm a reference to the {@code HighScoreManager} to load data.
+     */
+    LeaderboardTableModel(HighScoreManager hsm) {
+        this.hsm = hsm;
+        // the version is read first, so highscores saved while counting them leave the rows out of date
+        version = hsm.version();
+        rowCount = hsm.size();
+        page = List.of();
+        pageStart = 0;
+    }
+
+    /**
+     * Drops the fetched rows and tells the table to display them again if the highscores have changed since they were
+     * fetched. Must be called on the event dispatch thread.
+     */
+    void refresh() {
+        long current = hsm.version();
+        if (current == version)
+            return;
+        version = current;
+        rowCount = hsm.size();
+        page = List.of();
+        pageStart = 0;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Gets the number of highscores.
+     * @return the number of rows.
+     */
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return the number of columns.
+     */
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    /**
+     * Gets the name of a column.
+     * @param column the index of the column.
+     * @return the name of the column.
+     */
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    /**
+     * Gets the value of a cell, fetching the page of highscores the row is in if it has not been fetched already.
+     * @param row the index of the row.
+     * @param column the index of the column.
+     * @return the value of the cell.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row < pageStart || row >= pageStart + page.size()) {
+            pageStart = row - row % PAGE_SIZE;
+            page = hsm.page(pageStart, PAGE_SIZE);
+        }
+        HighScore hs = page.get(row - pageStart);
+        return switch (column) {
+            case 0 -> String.valueOf(row + 1);
+            case 1 -> hs.name();
+            case 2 -> String.valueOf(hs.score());
+            default -> hs.date().toString();
+        };
+    }
+}
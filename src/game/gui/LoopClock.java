@@ -0,0 +1,220 @@
+package game.gui;
+
+import game.LoggerSetup;
+import game.core.GameClock;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link GameClock} backed by a dedicated loop thread instead of the Swing event queue, so the timing of the game
+ * does not depend on how busy the event queue is.
+ * <p>
+ *     The loop advances the game with a fixed timestep: time is accumulated as it passes, and a tick is run each time
+ *     a full step has built up, so ticks stay evenly spaced on average even if a frame runs late. Between ticks the
+ *     loop renders frames at the frame rate, which is normally the refresh rate of the display, passing the renderer
+ *     how far the game is through the current step so it can draw moving objects between their positions on the last
+ *     two ticks.
+ * </p>
+ * <p>
+ *     The loop thread is started the first time the clock is started and keeps rendering while the clock is stopped,
+ *     so the window stays up to date while the game is paused.
+ * </p>
+ * <p>
+ *     Between ticks and frames the loop parks its thread, which may wake up late by up to the timer resolution of the
+ *     operating system. Setting the system property {@code snake.spin} to a number of microseconds makes the loop
+ *     wake up that long early and spin until the deadline instead, trading a busy core for more evenly spaced frames.
+ * </p>
+ */
+public class LoopClock implements GameClock {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(LoopClock.class.getName());
+
+    /** The frame rate used if the refresh rate of the display cannot be found. */
+    private static final int DEFAULT_FPS = 60;
+
+    /** The maximum number of ticks run to catch up before a frame is rendered. Any further backlog is dropped. */
+    private static final int MAX_CATCH_UP = 5;
+
+    /**
+     * How long before a frame is due the loop stops sleeping and spins, to make up for imprecise sleeps. Read from the
+     * system property {@code snake.spin} in microseconds, and {@code 0} unless it is set.
+     */
+    private static final long SPIN_NANOS =
+            TimeUnit.MICROSECONDS.toNanos(Math.max(0, Integer.getInteger("snake.spin", 0)));
+
+    /** The time between ticks in nanoseconds. */
+    private final long tickNanos;
+
+    /** The time between frames in nanoseconds. */
+    private final long frameNanos;
+
+    /** Advances the game by one tick. Run on the loop thread. */
+    private final Runnable tick;
+
+    /** Renders a frame, given how far through the current tick the game is. Run on the loop thread. */
+    private final DoubleConsumer render;
+
+    /** The loop thread. */
+    private final Thread thread;
+
+    /** Specifies whether the clock is running, in which case ticks are run. */
+    private volatile boolean running;
+
+    /**
+     * Creates a new {@code LoopClock}. The loop thread is not started until the clock is started.
+     * @param delay the time between ticks in milliseconds, or {@code 0} to run one tick per frame. Must not be
+     *              negative, matching {@link game.utils.GameConfig#delay()}.
+     * @param fps the number of frames rendered per second. Must be positive.
+     * @param tick advances the game by one tick.
+     * @param render renders a frame, given how far the game is from the last tick to the next, from {@code 0} to
+     *               {@code 1}. Always given {@code 1} while the clock is stopped.
+     * @throws IllegalArgumentException if {@code delay} is negative, {@code fps} is not positive, or {@code tick} or
+     *                                  {@code render} is null.
+     */
+    LoopClock(int delay, int fps, Runnable tick, DoubleConsumer render) {
+        if (delay < 0 || fps <= 0 || tick == null || render == null) {
+            LOGGER.severe("Invalid loop clock (delay: " + delay + ", fps: " + fps + ").");
+            throw new IllegalArgumentException("delay must not be negative, fps must be positive and tick and render "
+                    + "must not be null");
+        }
+        frameNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+        tickNanos = delay == 0 ? frameNanos : TimeUnit.MILLISECONDS.toNanos(delay);
+        this.tick = tick;
+        this.render = render;
+        running = false;
+        thread = new Thread(this::loop, "game-loop");
+        thread.setDaemon(true);
+        LOGGER.config("Created loop clock with a " + delay + " ms tick at " + fps + " fps.");
+    }
+
+    /**
+     * Starts running ticks, starting the loop thread if it has not been started yet.
+     */
+    @Override
+    public synchronized void start() {
+        running = true;
+        if (thread.getState() == Thread.State.NEW)
+            thread.start();
+    }
+
+    /**
+     * Stops running ticks. Frames are still rendered.
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Returns {@code true} if the clock is running ticks.
+     * @return true if the clock is running, false otherwise.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The loop run by the loop thread. Runs every tick that is due, renders a frame if one is due, and waits until the
+     * next tick or frame is due, whichever comes first.
+     */
+    private void loop() {
+        long previous = System.nanoTime();
+        long nextFrame = previous;
+        long lag = 0;
+        while (true) {
+            long now = System.nanoTime();
+            lag = running ? lag + now - previous : 0;
+            previous = now;
+            int ticks = 0;
+            while (lag >= tickNanos && running) {
+                if (ticks == MAX_CATCH_UP) {
+                    // the game cannot keep up, so skip ahead rather than falling further behind
+                    if (LOGGER.isLoggable(Level.FINE))
+                        LOGGER.fine("Game loop fell behind by " + lag / tickNanos + " ticks.");
+                    lag %= tickNanos;
+                    break;
+                }
+                runSafely(tick);
+                lag -= tickNanos;
+                ticks++;
+            }
+            if (now - nextFrame >= 0) {
+                runSafely(render, running ? (double) lag / tickNanos : 1);
+                nextFrame += frameNanos;
+                // drop frames that are already late rather than rendering them back to back
+                if (nextFrame - now < 0)
+                    nextFrame = now + frameNanos;
+            }
+            waitUntil(running ? Math.min(nextFrame, now + tickNanos - lag) : nextFrame);
+        }
+    }
+
+    /**
+     * Runs a task, logging anything it throws so that one failed tick or frame does not stop the loop.
+     * @param task the task to run.
+     */
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Game loop task failed.", e);
+        }
+    }
+
+    /**
+     * Runs a task given a value, logging anything it throws so that one failed frame does not stop the loop. Passing
+     * the value here rather than capturing it in a {@code Runnable} keeps the loop from allocating every frame.
+     * @param task the task to run.
+     * @param value the value given to the task.
+     */
+    private static void runSafely(DoubleConsumer task, double value) {
+        try {
+            task.accept(value);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Game loop task failed.", e);
+        }
+    }
+
+    /**
+     * Waits until the given time, sleeping until {@code SPIN_NANOS} before it and spinning for the rest.
+     * @param deadline the {@link System#nanoTime()} to wait until.
+     */
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS)
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        while (deadline - System.nanoTime() > 0)
+            Thread.onSpinWait();
+    }
+
+    /**
+     * Gets the frame rate to render at. This is read from the system property {@code snake.fps} if it is set, and is
+     * otherwise the refresh rate of the default display.
+     * @return the number of frames to render per second.
+     */
+    static int frameRate() {
+        Integer fps = Integer.getInteger("snake.fps");
+        if (fps != null && fps > 0)
+            return fps;
+        try {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDisplayMode();
+            if (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN)
+                return mode.getRefreshRate();
+        } catch (HeadlessException e) {
+            LOGGER.fine("No display found. Rendering at " + DEFAULT_FPS + " fps.");
+        }
+        return DEFAULT_FPS;
+    }
+}
@@ -37,7 +37,7 @@ public class SnakeFrame extends JFrame {
      */
     public SnakeFrame() {
         this.setTitle("Snake");
-        setIconImage(Constants.ICON);
+        setIconImage(Constants.Images.ICON);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.setLayout(null);
         setContentPane(new SnakePanel());
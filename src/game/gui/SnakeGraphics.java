@@ -2,15 +2,27 @@ package game.gui;
 
 import game.LoggerSetup;
 import game.core.Food;
+import game.core.Grid;
 import game.core.Snake;
-import game.utils.Constants;
 
 import java.awt.*;
-import java.util.List;
+import java.awt.image.BufferedImage;
 import java.util.logging.Logger;
 
 /**
  * A class for drawing the snake onto the {@link GameGridPanel}.
+ * <p>
+ *     Every cell of the snake's body is one of a small number of shapes: a straight segment, a segment with one of
+ *     four rounded corners, or the head or tail facing one of four directions. Each shape is drawn once into a sprite
+ *     when the cell size changes, so drawing a cell of the snake is a single {@code drawImage} and drawing the snake
+ *     takes the same time per cell no matter how long it grows. Only the eyes, which follow the food, are drawn every
+ *     frame.
+ * </p>
+ * <p>
+ *     When frames are drawn more often than the game ticks, the head and tail can be drawn part way between the cells
+ *     they were in on the last two ticks, so the snake slides smoothly from cell to cell. The head slides over the
+ *     segment it left behind and the tail slides off the segment it is leaving, so only the ends of the snake move.
+ * </p>
  */
 public class SnakeGraphics {
     /**
@@ -18,6 +30,39 @@ public class SnakeGraphics {
      * @hidden
      */
     private static final Logger LOGGER = LoggerSetup.getLogger(SnakeGraphics.class.getName());
+
+    /** The color of the snake's body. */
+    private static final Color BODY_COLOR = new Color(86, 136, 255);
+
+    /** The stroke the eyes of a dead snake are crossed out with. */
+    private static final BasicStroke CROSS_STROKE = new BasicStroke(3);
+
+    /** The index of the first head sprite. The head sprites are ordered up, down, left, right. */
+    private static final int HEAD = 5;
+
+    /** The index of the first tail sprite. The tail sprites are ordered up, down, left, right. */
+    private static final int TAIL = 9;
+
+    /** The number of sprites. */
+    private static final int SPRITE_COUNT = 13;
+
+    /**
+     * The sprite of a segment, indexed first by the direction from the segment before it (closer to the head) to the
+     * segment and then by the direction from the segment to the one after it, with the directions ordered up, down,
+     * left, right. Sprites {@code 0} to {@code 3} are segments with a rounded top left, top right, bottom left and
+     * bottom right corner, and sprite {@code 4} is a segment with no rounded corners.
+     */
+    private static final int[][] SEGMENT_SHAPES = {
+            // up, then left -> top right, right -> top left
+            {4, 4, 1, 0},
+            // down, then left -> bottom right, right -> bottom left
+            {4, 4, 3, 2},
+            // left, then up -> bottom left, down -> top left
+            {2, 0, 4, 4},
+            // right, then up -> bottom right, down -> top right
+            {3, 1, 4, 4},
+    };
+
     /**
      * A reference to the Graphics2D of the {@code GameGridPanel}.
      */
@@ -33,6 +78,31 @@ public class SnakeGraphics {
      */
     private Food food;
 
+    /**
+     * The size in pixels of each cell of the grid.
+     */
+    private int cellSize;
+
+    /**
+     * The sprite of each shape a cell of the snake can have, or {@code null} if they have not been drawn yet.
+     */
+    private BufferedImage[] sprites;
+
+    /**
+     * The cell size the {@code sprites} were drawn for.
+     */
+    private int spriteSize;
+
+    /**
+     * The x coordinate in pixels the head was last drawn at.
+     */
+    private int headPx;
+
+    /**
+     * The y coordinate in pixels the head was last drawn at.
+     */
+    private int headPy;
+
     /**
      * Default constructor that creates the SnakeGraphic object.
      */
@@ -42,59 +112,215 @@ public class SnakeGraphics {
      * @param g2d The graphics of the panel.F
      * @param snake The current reference to the snake. Used to draw all segments.
      * @param food The current reference to the food. Used to draw the snake's pupils in the direction of the food.
+     * @param cellSize The size in pixels of each cell of the grid.
      */
-    public void drawSnake(Graphics2D g2d, Snake snake, Food food) {
+    public void drawSnake(Graphics2D g2d, Snake snake, Food food, int cellSize) {
+        drawSnake(g2d, snake, food, cellSize, -1, -1, 1);
+    }
+
+    /**
+     * Draws the snake part way through its move from the cells it was in on the previous tick to the cells it is in
+     * now. If the head or tail did not move to an adjacent cell on the last tick, it is drawn in its current cell.
+     * @param g2d The graphics of the panel.
+     * @param snake The current reference to the snake. Used to draw all segments.
+     * @param food The current reference to the food. Used to draw the snake's pupils in the direction of the food.
+     * @param cellSize The size in pixels of each cell of the grid.
+     * @param fromHead The packed cell the head was in on the previous tick.
+     * @param fromTail The packed cell the tail was in on the previous tick.
+     * @param alpha How far the snake is through its move, from {@code 0} for the previous tick to {@code 1} for the
+     *              current tick.
+     */
+    public void drawSnake(Graphics2D g2d, Snake snake, Food food, int cellSize, int fromHead, int fromTail,
+                          double alpha) {
         this.g2d = g2d;
         this.snake = snake;
         this.food = food;
-        drawBody();
+        this.cellSize = cellSize;
+        drawBody(fromHead, fromTail, alpha);
         drawEyes(false);
-        LOGGER.finer("Painted living snake");
+        LOGGER.finest("Painted living snake");
     }
 
     /**
-     * Draws the body of the {@code Snake}.
+     * Draws the body of the {@code Snake}, including the head and tail, one sprite per cell. Cells outside the area
+     * being painted are skipped. A head or tail that is still moving is drawn between the cell it moved from and the
+     * cell it moved to, and the segment it overlaps is only drawn where it is not covered.
+     * @param fromHead the packed cell the head was in on the previous tick.
+     * @param fromTail the packed cell the tail was in on the previous tick.
+     * @param alpha how far the snake is through its move, from {@code 0} to {@code 1}.
      */
-    private void drawBody() {
-        g2d.setColor(new Color(86, 136, 255));
-        drawHead();
-        drawTail();
-        List<Point> body = snake.getSnake();
-        for(int i = 1; i < body.size() - 1; i++) {
-            Point cur = body.get(i);
-            Point prev = body.get(i - 1);
-            Point next = body.get(i + 1);
-            int dx1 = cur.x - prev.x;
-            int dy1 = cur.y - prev.y;
-            int dx2 = next.x - cur.x;
-            int dy2 = next.y - cur.y;
-            // l->d and u->r = 0 (NW round)
-            if ((dx1 == -1 && dy2 == 1) || (dy1 == -1 && dx2 == 1))
-                drawSegment(cur, 0);
-            // r->d and u->l = 1 (NE round)
-            else if ((dx1 == 1 && dy2 == 1) || (dy1 == -1 && dx2 == -1))
-                drawSegment(cur, 1);
-            // l->u and d->r = 2 (SW round)
-            else if ((dx1 == -1 && dy2 == -1) || (dy1 == 1 && dx2 == 1))
-                drawSegment(cur, 2);
-            // r->u and d->l = 3 (SE round)
-            else if ((dx1 == 1 && dy2 == -1) || (dy1 == 1 && dx2 == -1))
-                drawSegment(cur, 3);
-            // (no round)
-            else
-                drawSegment(cur, -1);
+    private void drawBody(int fromHead, int fromTail, double alpha) {
+        if (sprites == null || spriteSize != cellSize)
+            createSprites();
+        Grid grid = snake.getGrid();
+        int stride = grid.stride();
+        Rectangle clip = g2d.getClipBounds();
+        int last = snake.length() - 1;
+        int head = snake.getHeadCell();
+        int tail = snake.getCell(last);
+        int span = (int) (alpha * cellSize);
+        // the head moved if the cell it came from is now the first segment, and the tail moved if it is one cell on
+        boolean headMoving = span < cellSize && last > 1 && fromHead == snake.getCell(1);
+        boolean tailMoving = span < cellSize && last > 1 && isAdjacent(tail - fromTail, stride);
+        headPx = grid.x(head) * cellSize;
+        headPy = grid.y(head) * cellSize;
+        for (int i = headMoving ? 1 : 0; i <= last; i++) {
+            int cell = snake.getCell(i);
+            int x = grid.x(cell) * cellSize;
+            int y = grid.y(cell) * cellSize;
+            if (clip != null && !clip.intersects(x, y, cellSize + 1, cellSize + 1))
+                continue;
+            int sprite;
+            Rectangle visible = null;
+            if (i == 0) {
+                sprite = HEAD + direction(cell - snake.getCell(1), stride);
+            } else if (i == last && tailMoving) {
+                // the new tail is a segment joined to the old tail until the tail slides onto it
+                sprite = SEGMENT_SHAPES[direction(cell - snake.getCell(i - 1), stride)]
+                        [direction(fromTail - cell, stride)];
+                visible = part(x, y, direction(cell - fromTail, stride), cellSize + 1 - span, true);
+            } else if (i == last) {
+                sprite = TAIL + direction(snake.getCell(i - 1) - cell, stride);
+            } else {
+                sprite = SEGMENT_SHAPES[direction(cell - snake.getCell(i - 1), stride)]
+                        [direction(snake.getCell(i + 1) - cell, stride)];
+                // the segment the head left is uncovered as the head slides off it
+                if (i == 1 && headMoving)
+                    visible = part(x, y, direction(head - cell, stride), span, false);
+            }
+            drawSprite(sprites[sprite], x, y, visible);
+        }
+        if (tailMoving) {
+            int direction = direction(tail - fromTail, stride);
+            drawSprite(sprites[TAIL + direction], lerp(grid.x(fromTail), grid.x(tail), span),
+                    lerp(grid.y(fromTail), grid.y(tail), span), null);
+        }
+        if (headMoving) {
+            int direction = direction(head - fromHead, stride);
+            headPx = lerp(grid.x(fromHead), grid.x(head), span);
+            headPy = lerp(grid.y(fromHead), grid.y(head), span);
+            drawSprite(sprites[HEAD + direction], headPx, headPy, null);
         }
     }
 
     /**
-     * Draws the head of the {@code Snake}.
+     * Draws a sprite, limited to the given area.
+     * @param sprite the sprite to draw.
+     * @param x the x coordinate in pixels to draw the sprite at.
+     * @param y the y coordinate in pixels to draw the sprite at.
+     * @param visible the area of the sprite to draw, or {@code null} to draw all of it.
      */
+    private void drawSprite(BufferedImage sprite, int x, int y, Rectangle visible) {
+        if (visible == null) {
+            g2d.drawImage(sprite, x, y, null);
+            return;
+        }
+        Shape clip = g2d.getClip();
+        g2d.clipRect(visible.x, visible.y, visible.width, visible.height);
+        g2d.drawImage(sprite, x, y, null);
+        g2d.setClip(clip);
+    }
 
-    private void drawHead() {
-        Point head = snake.getSnake().get(0);
-        Point prev = snake.getSnake().get(1);
-        int dx = head.x - prev.x;
-        int dy = head.y - prev.y;
+    /**
+     * Gets a strip of a cell along one of its sides.
+     * @param x the x coordinate in pixels of the cell.
+     * @param y the y coordinate in pixels of the cell.
+     * @param direction the side of the cell: {@code 0} for up, {@code 1} for down, {@code 2} for left and {@code 3}
+     *                  for right.
+     * @param length how far the strip reaches into the cell in pixels.
+     * @param front true for a strip along the given side, false for a strip along the opposite side.
+     * @return the strip of the cell.
+     */
+    private Rectangle part(int x, int y, int direction, int length, boolean front) {
+        int size = cellSize + 1;
+        int offset = size - length;
+        return switch (direction) {
+            case 0 -> new Rectangle(x, front ? y : y + offset, size, length);
+            case 1 -> new Rectangle(x, front ? y + offset : y, size, length);
+            case 2 -> new Rectangle(front ? x : x + offset, y, length, size);
+            default -> new Rectangle(front ? x + offset : x, y, length, size);
+        };
+    }
+
+    /**
+     * Gets the pixel coordinate part way between two cells in a row or column.
+     * @param from the cell coordinate moved from.
+     * @param to the cell coordinate moved to, no more than one cell from {@code from}.
+     * @param span how many pixels have been moved.
+     * @return the pixel coordinate.
+     */
+    private int lerp(int from, int to, int span) {
+        return from * cellSize + (to - from) * span;
+    }
+
+    /**
+     * Returns {@code true} if two cells are adjacent.
+     * @param delta the difference between the packed cell indexes.
+     * @param stride the stride of the grid.
+     * @return true if the cells share a side, false otherwise.
+     */
+    private static boolean isAdjacent(int delta, int stride) {
+        return delta == 1 || delta == -1 || delta == stride || delta == -stride;
+    }
+
+    /**
+     * Gets the direction of a move between two adjacent cells.
+     * @param delta the packed cell index moved to minus the packed cell index moved from.
+     * @param stride the stride of the grid.
+     * @return {@code 0} for up, {@code 1} for down, {@code 2} for left and {@code 3} for right. Cells that are not
+     *         adjacent are treated as up.
+     */
+    private static int direction(int delta, int stride) {
+        if (delta == stride)
+            return 1;
+        if (delta == -1)
+            return 2;
+        if (delta == 1)
+            return 3;
+        return 0;
+    }
+
+    /**
+     * Draws a sprite of every shape a cell of the snake can have for the current cell size.
+     */
+    private void createSprites() {
+        BufferedImage[] created = new BufferedImage[SPRITE_COUNT];
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            // one pixel larger than a cell, as shapes are widened by a pixel when the cell size is odd
+            created[i] = gc.createCompatibleImage(cellSize + 1, cellSize + 1, Transparency.TRANSLUCENT);
+            Graphics2D g = created[i].createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(BODY_COLOR);
+                if (i < HEAD)
+                    paintSegment(g, i == HEAD - 1 ? -1 : i);
+                else if (i < TAIL)
+                    paintHead(g, i - HEAD);
+                else
+                    paintTail(g, i - TAIL);
+            } finally {
+                g.dispose();
+            }
+        }
+        if (sprites != null) {
+            for (BufferedImage sprite : sprites)
+                sprite.flush();
+        }
+        sprites = created;
+        spriteSize = cellSize;
+        LOGGER.fine("Drew snake sprites for a cell size of " + cellSize + ".");
+    }
+
+    /**
+     * Paints the head of the {@code Snake} into a sprite.
+     * @param g the graphics of the sprite.
+     * @param direction the direction the snake is moving in: {@code 0} for up, {@code 1} for down, {@code 2} for left
+     *                  and {@code 3} for right.
+     */
+    private void paintHead(Graphics2D g, int direction) {
+        int dx = direction == 2 ? -1 : direction == 3 ? 1 : 0;
+        int dy = direction == 0 ? -1 : direction == 1 ? 1 : 0;
 
         // Determine the start angle for the arc based on movement direction
         int startAngle = 0; // Moving up
@@ -103,28 +329,28 @@ public class SnakeGraphics {
         else if (dy > 0) startAngle = 180; // Moving down
 
         // Draw the arc for the head in the direction of movement
-        g2d.fillArc(head.x * Constants.CELL_SIZE, head.y * Constants.CELL_SIZE,
-                Constants.CELL_SIZE, Constants.CELL_SIZE, startAngle, 180);
+        g.fillArc(0, 0, cellSize, cellSize, startAngle, 180);
 
         // Calculate the rectangle's starting position and size based on movement direction
-        int roundingOffset = Constants.CELL_SIZE % 2;
-        int x = head.x*Constants.CELL_SIZE + (dx < 0 ? Constants.CELL_SIZE/2: 0);
-        int y = head.y*Constants.CELL_SIZE + (dy < 0 ? Constants.CELL_SIZE/2: 0);
-        int width = dx == 0 ? Constants.CELL_SIZE : (Constants.CELL_SIZE/2 + (dx < 0 ? 2 * roundingOffset : roundingOffset));
-        int height = dy == 0 ? Constants.CELL_SIZE : (Constants.CELL_SIZE/2 + (dy < 0 ? 2 * roundingOffset : roundingOffset));
+        int roundingOffset = cellSize % 2;
+        int x = dx < 0 ? cellSize/2: 0;
+        int y = dy < 0 ? cellSize/2: 0;
+        int width = dx == 0 ? cellSize : (cellSize/2 + (dx < 0 ? 2 * roundingOffset : roundingOffset));
+        int height = dy == 0 ? cellSize : (cellSize/2 + (dy < 0 ? 2 * roundingOffset : roundingOffset));
 
         // Draw the rectangle part of the head
-        g2d.fillRect(x, y, width, height);
+        g.fillRect(x, y, width, height);
     }
 
     /**
-     * Draws the tail of the {@code Snake}.
+     * Paints the tail of the {@code Snake} into a sprite.
+     * @param g the graphics of the sprite.
+     * @param direction the direction the tail is moving in: {@code 0} for up, {@code 1} for down, {@code 2} for left
+     *                  and {@code 3} for right.
      */
-    private void drawTail() {
-        Point tail = snake.getSnake().get(snake.getSnake().size() - 1);
-        Point next = snake.getSnake().get(snake.getSnake().size() - 2);
-        int dx = next.x - tail.x;
-        int dy = next.y - tail.y;
+    private void paintTail(Graphics2D g, int direction) {
+        int dx = direction == 2 ? -1 : direction == 3 ? 1 : 0;
+        int dy = direction == 0 ? -1 : direction == 1 ? 1 : 0;
 
         // Determine the start angle for the arc based on movement direction
         int startAngle = 0; // Moving down
@@ -136,58 +362,54 @@ public class SnakeGraphics {
             startAngle = 180;   // Moving up
 
         // Draw the arc for the tail in the direction of movement
-        g2d.fillArc(tail.x * Constants.CELL_SIZE, tail.y * Constants.CELL_SIZE,
-                Constants.CELL_SIZE, Constants.CELL_SIZE, startAngle, 180);
+        g.fillArc(0, 0, cellSize, cellSize, startAngle, 180);
 
         // Calculate the rectangle's starting position and size based on movement direction
-        int roundingOffset = Constants.CELL_SIZE % 2;
-        int x = tail.x*Constants.CELL_SIZE + (dx > 0 ? Constants.CELL_SIZE/2 : 0);
-        int y = tail.y*Constants.CELL_SIZE + (dy > 0 ? Constants.CELL_SIZE/2 : 0);
-        int width = dx == 0 ? Constants.CELL_SIZE : (Constants.CELL_SIZE/2 + (dx < 0 ? 2 * roundingOffset : roundingOffset));
-        int height = dy == 0 ? Constants.CELL_SIZE : (Constants.CELL_SIZE/2 + (dy < 0 ? 2 * roundingOffset : roundingOffset));
+        int roundingOffset = cellSize % 2;
+        int x = dx > 0 ? cellSize/2 : 0;
+        int y = dy > 0 ? cellSize/2 : 0;
+        int width = dx == 0 ? cellSize : (cellSize/2 + (dx < 0 ? 2 * roundingOffset : roundingOffset));
+        int height = dy == 0 ? cellSize : (cellSize/2 + (dy < 0 ? 2 * roundingOffset : roundingOffset));
 
         // Draw the rectangle part of the tail
-        g2d.fillRect(x, y, width, height);
+        g.fillRect(x, y, width, height);
     }
 
-
     /**
-     * Draws a segment of the {@code Snake}. A segment is any part that is not the head or tail.
-     * @param p The position of the segment
+     * Paints a segment of the {@code Snake} into a sprite. A segment is any part that is not the head or tail.
+     * @param g the graphics of the sprite.
      * @param round what corner is round. 0 -> top left, 1 -> top right, 2 -> bottom left, 3-> bottom right.
      */
-    private void drawSegment(Point p, int round) {
-        int cornerSize = Constants.CELL_SIZE/2;
-        int x = p.x * Constants.CELL_SIZE;
-        int y = p.y * Constants.CELL_SIZE;
-        int roundingOffset = Constants.CELL_SIZE % 2; // if CELL_SIZE is an odd number, there will be rounding errors
+    private void paintSegment(Graphics2D g, int round) {
+        int cornerSize = cellSize/2;
+        int roundingOffset = cellSize % 2; // if the cell size is an odd number, there will be rounding errors
 
         // Draw each corner with conditional rounding
         for (int i = 0; i < 4; i++) {
             switch (i) {
                 case 0 -> { // Top-Left
                     if (round == 0)
-                        g2d.fillArc(x, y, Constants.CELL_SIZE + roundingOffset, Constants.CELL_SIZE + roundingOffset, 90, 90);
+                        g.fillArc(0, 0, cellSize + roundingOffset, cellSize + roundingOffset, 90, 90);
                     else
-                        g2d.fillRect(x, y, cornerSize + roundingOffset, cornerSize + roundingOffset);
+                        g.fillRect(0, 0, cornerSize + roundingOffset, cornerSize + roundingOffset);
                 }
                 case 1 -> { // Top-Right
                     if (round == 1)
-                        g2d.fillArc(x, y, Constants.CELL_SIZE, Constants.CELL_SIZE + roundingOffset, 0, 90);
+                        g.fillArc(0, 0, cellSize, cellSize + roundingOffset, 0, 90);
                     else
-                        g2d.fillRect(x + cornerSize + roundingOffset, y, cornerSize, cornerSize + roundingOffset);
+                        g.fillRect(cornerSize + roundingOffset, 0, cornerSize, cornerSize + roundingOffset);
                 }
                 case 2 -> { // Bottom-Left
                     if (round == 2)
-                        g2d.fillArc(x, y, Constants.CELL_SIZE + roundingOffset, Constants.CELL_SIZE, 180, 90);
+                        g.fillArc(0, 0, cellSize + roundingOffset, cellSize, 180, 90);
                     else
-                        g2d.fillRect(x, y + cornerSize + roundingOffset, cornerSize + roundingOffset, cornerSize);
+                        g.fillRect(0, cornerSize + roundingOffset, cornerSize + roundingOffset, cornerSize);
                 }
                 case 3 -> { // Bottom-Right
                     if (round == 3)
-                        g2d.fillArc(x, y, Constants.CELL_SIZE, Constants.CELL_SIZE, 270, 90);
+                        g.fillArc(0, 0, cellSize, cellSize, 270, 90);
                     else
-                        g2d.fillRect(x + cornerSize + roundingOffset, y + cornerSize + roundingOffset, cornerSize, cornerSize);
+                        g.fillRect(cornerSize + roundingOffset, cornerSize + roundingOffset, cornerSize, cornerSize);
                 }
             }
         }
@@ -200,23 +422,21 @@ public class SnakeGraphics {
      * @param dead the state of the snake. If the {@code Snake} is dead then true, otherwise false.
      */
     private void drawEyes(boolean dead) {
-        // Paint the snake head
-        Point head = snake.getSnake().get(0);
-
         // Set color for eyes
 
-        int eyeSize = Constants.CELL_SIZE / 3;
-        int offsetX = Constants.CELL_SIZE / 3;
-        int offsetY = Constants.CELL_SIZE / 3;
+        int eyeSize = cellSize / 3;
+        int offsetX = cellSize / 3;
+        int offsetY = cellSize / 3;
         int pupilOffset = eyeSize / 2;
 
         // Calculate eye positions
-        int leftEyeX = head.x * Constants.CELL_SIZE + offsetX - (eyeSize / 2);
-        int rightEyeX = head.x * Constants.CELL_SIZE + 2 * offsetX - (eyeSize / 2);
-        int eyeY = head.y * Constants.CELL_SIZE + offsetY - (eyeSize / 2);
+        int leftEyeX = headPx + offsetX - (eyeSize / 2);
+        int rightEyeX = headPx + 2 * offsetX - (eyeSize / 2);
+        int eyeY = headPy + offsetY - (eyeSize / 2);
 
         if(dead) {
-            g2d.setStroke(new BasicStroke(3));
+            Stroke stroke = g2d.getStroke();
+            g2d.setStroke(CROSS_STROKE);
             g2d.setColor(Color.BLACK);
             // Draw left eye as an X
             g2d.drawLine(leftEyeX, eyeY, leftEyeX + eyeSize, eyeY + eyeSize);
@@ -225,7 +445,7 @@ public class SnakeGraphics {
             // Draw right eye as an X
             g2d.drawLine(rightEyeX, eyeY, rightEyeX + eyeSize, eyeY + eyeSize);
             g2d.drawLine(rightEyeX, eyeY + eyeSize, rightEyeX + eyeSize, eyeY);
-            g2d.setStroke(new BasicStroke(1));
+            g2d.setStroke(stroke);
             return;
         }
 
@@ -237,7 +457,9 @@ public class SnakeGraphics {
 
         // Find the angle between the food and the head in radians
         // theta = arctan((y2 - y1) / (x2 - x1))
-        double fruitHeadAngle = Math.atan2(food.getPosition().y - head.y, food.getPosition().x - head.x);
+        // the head may be part way between cells, so measure from where it is drawn
+        double fruitHeadAngle = Math.atan2(food.getPosition().y * cellSize - headPy,
+                food.getPosition().x * cellSize - headPx);
 
         // Find the length of the sides of the 45-45-90 triangle where the hypotenuse is the radius of the pupil offset
         // hyp = side*sqrt2 -> side = hyp/sqrt2
@@ -260,15 +482,23 @@ public class SnakeGraphics {
 
         g2d.fillOval(pupilLX, pupilLY, pupilSize, pupilSize);
         g2d.fillOval(pupilRX, pupilRY, pupilSize, pupilSize);
-        g2d.setColor(new Color(86, 136, 255));
+        g2d.setColor(BODY_COLOR);
     }
 
     /**
-     * Draws the dead variant of the {@code Snake}.
+     * Draws the dead variant of the {@code Snake}, with its eyes crossed out, in place of the living snake. Drawn every
+     * frame while the game is over, so nothing is logged.
+     * @param g2d The graphics of the panel.
+     * @param snake The current reference to the snake. Used to draw all segments.
+     * @param food The current reference to the food.
+     * @param cellSize The size in pixels of each cell of the grid.
      */
-    public void kill() {
-        drawBody();
+    public void drawDeadSnake(Graphics2D g2d, Snake snake, Food food, int cellSize) {
+        this.g2d = g2d;
+        this.snake = snake;
+        this.food = food;
+        this.cellSize = cellSize;
+        drawBody(-1, -1, 1);
         drawEyes(true);
-        LOGGER.fine("Painted dead snake");
     }
-}
\ No newline at end of file
+}
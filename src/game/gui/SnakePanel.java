@@ -3,8 +3,11 @@ package game.gui;
 import game.LoggerSetup;
 import game.utils.Constants;
 import game.utils.Direction;
+import game.utils.GameConfig;
 import game.utils.HighScoreManager;
+import game.core.GameClock;
 import game.core.GameEngine;
+import game.core.TickOutcome;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -17,6 +20,13 @@ import java.util.logging.Logger;
 
 /**
  * The main panel for the snake game. Handles user input and manages all main UI elements.
+ * <p>
+ *     By default the game is run by a {@link LoopClock} on its own thread, which ticks the game and actively renders
+ *     the grid at the refresh rate of the display. Setting the system property {@code snake.render=passive} runs the
+ *     game on a Swing {@link Timer} instead, ticking and repainting on the event dispatch thread. As the game loop
+ *     thread and the event dispatch thread both use the {@link GameEngine}, it is locked whenever it is changed,
+ *     except for direction keys, which are handed to the game loop through the engine's lock-free input queue.
+ * </p>
  */
 public class SnakePanel extends JPanel implements KeyListener, ActionListener {
     /**
@@ -46,18 +56,30 @@ public class SnakePanel extends JPanel implements KeyListener, ActionListener {
     private final HighScoreManager hsm;
 
     /**
-     * Sets up the game with first launch settings. A new timer is started, highscores are loaded, the start menu
+     * The score last shown in the {@code headerPanel} by the game loop thread.
+     */
+    private int shownScore;
+
+    /**
+     * Sets up the game with first launch settings. The game settings are read from the system properties (see
+     * {@link GameConfig#fromSystemProperties()}), a new game loop is started, highscores are loaded, the start menu
      * opens, and the first frame of the game loads.
      */
     public SnakePanel() {
-        Timer timer = new Timer(Constants.DELAY, this);
-        gameEngine = new GameEngine(timer);
-        hsm = new HighScoreManager("src/resources/data/highscores.csv");
+        GameConfig config = GameConfig.fromSystemProperties();
+        boolean activeRendering = !"passive".equalsIgnoreCase(System.getProperty("snake.render"));
+        GameClock clock = activeRendering
+                ? new LoopClock(config.delay(), LoopClock.frameRate(), this::tick, alpha -> gameGridPanel.render(alpha))
+                : new TimerClock(new Timer(config.delay(), this));
+        gameEngine = new GameEngine(clock);
+        hsm = new HighScoreManager("src/resources/data/highscores.dat");
         startMenu();
-        initializeWindow();
+        initializeWindow(activeRendering);
 
-        gameEngine.startGame();
-        gameEngine.togglePause();
+        synchronized (gameEngine) {
+            gameEngine.startGame(config);
+            gameEngine.togglePause();
+        }
         LOGGER.config("Created new Snake Panel");
     }
 
@@ -65,14 +87,15 @@ public class SnakePanel extends JPanel implements KeyListener, ActionListener {
      * Creates a new {@link StartMenuPanel}.
      */
     private void startMenu() {
-        new StartMenuPanel(Constants.ICON, hsm, gameEngine);
+        new StartMenuPanel(Constants.Images.ICON, hsm, gameEngine);
     }
 
 
     /**
      * Sets the initial settings for the panel and creates a new {@link HeaderPanel} and {@link GameGridPanel}.
+     * @param activeRendering true if the grid is actively rendered by the game loop, false if it is painted by Swing.
      */
-    private void initializeWindow() {
+    private void initializeWindow(boolean activeRendering) {
         this.setPreferredSize(new Dimension(Constants.WIDTH, Constants.HEIGHT));
         this.setLayout(new BorderLayout());
         this.setFocusable(true);
@@ -81,7 +104,7 @@ public class SnakePanel extends JPanel implements KeyListener, ActionListener {
         headerPanel = new HeaderPanel(resizeImage("src/resources/images/apple.png", 50, 50));
         this.add(headerPanel, BorderLayout.NORTH);
 
-        gameGridPanel = new GameGridPanel(gameEngine);
+        gameGridPanel = new GameGridPanel(gameEngine, activeRendering);
         this.add(gameGridPanel.getPaddingPanel(), BorderLayout.CENTER);
     }
 
@@ -95,21 +118,43 @@ public class SnakePanel extends JPanel implements KeyListener, ActionListener {
     }
 
     /**
-     * The main game loop. This method is run constantly while the timer is running. The refresh rate is based on
-     * {@link Constants#DELAY}.
+     * The main game loop when the game is run on a Swing timer. This method is run constantly while the timer is
+     * running. The refresh rate is based on {@link GameConfig#delay()}.
      * @param e the event to be processed (not used)
      */
     @Override
     public void actionPerformed(ActionEvent e) {
-        gameEngine.updateGame();
+        synchronized (gameEngine) {
+            gameEngine.updateGame();
+            gameGridPanel.afterTick();
+        }
         headerPanel.updateScore(gameEngine.getScore());
-        gameGridPanel.repaint();
-        repaint();
         if (gameEngine.hasEnded()) {
             new GameOverDialog(gameEngine, hsm);
         }
     }
 
+    /**
+     * The main game loop when the game is run by a {@link LoopClock}. Run on the game loop thread once per tick, so
+     * anything shown by Swing is handed to the event dispatch thread.
+     */
+    private void tick() {
+        TickOutcome outcome;
+        int score;
+        synchronized (gameEngine) {
+            gameGridPanel.beforeTick();
+            outcome = gameEngine.step(null);
+            gameGridPanel.afterTick();
+            score = gameEngine.getScore();
+        }
+        if (score != shownScore) {
+            shownScore = score;
+            SwingUtilities.invokeLater(() -> headerPanel.updateScore(score));
+        }
+        if (outcome == TickOutcome.COLLIDED || outcome == TickOutcome.WON)
+            SwingUtilities.invokeLater(() -> new GameOverDialog(gameEngine, hsm));
+    }
+
     /**
      * @hidden
      * Run when a key is pressed and released (not used).
@@ -133,13 +178,20 @@ public class SnakePanel extends JPanel implements KeyListener, ActionListener {
     @Override
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyCode()) {
-            case KeyEvent.VK_UP -> gameEngine.getSnake().changeDirection(Direction.UP);
-            case KeyEvent.VK_DOWN -> gameEngine.getSnake().changeDirection(Direction.DOWN);
-            case KeyEvent.VK_LEFT -> gameEngine.getSnake().changeDirection(Direction.LEFT);
-            case KeyEvent.VK_RIGHT -> gameEngine.getSnake().changeDirection(Direction.RIGHT);
-            case KeyEvent.VK_P -> gameEngine.togglePause();
+            case KeyEvent.VK_UP -> gameEngine.queueDirection(Direction.UP);
+            case KeyEvent.VK_DOWN -> gameEngine.queueDirection(Direction.DOWN);
+            case KeyEvent.VK_LEFT -> gameEngine.queueDirection(Direction.LEFT);
+            case KeyEvent.VK_RIGHT -> gameEngine.queueDirection(Direction.RIGHT);
+            case KeyEvent.VK_P -> {
+                synchronized (gameEngine) {
+                    gameEngine.togglePause();
+                }
+            }
             case KeyEvent.VK_R -> {
-                gameEngine.endGame();
+                synchronized (gameEngine) {
+                    gameEngine.endGame();
+                }
+                // the dialog blocks until it is closed, so the engine must not be locked while it is open
                 new GameOverDialog(gameEngine, hsm);
             }
         }
@@ -61,7 +61,7 @@ public class StartMenuPanel extends JPanel {
      */
     private void initializeFrame() {
         parent = new JFrame("Snake");
-        parent.setIconImage(Constants.ICON);
+        parent.setIconImage(Constants.Images.ICON);
         parent.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         parent.setSize(300, 375);
         parent.setLayout(new BorderLayout());
@@ -116,7 +116,9 @@ public class StartMenuPanel extends JPanel {
      * Logic for the start game button. Toggles pause and disposes of the current panel.
      */
     private void playGame() {
-        gameEngine.togglePause();
+        synchronized (gameEngine) {
+            gameEngine.togglePause();
+        }
         dispose();
         LOGGER.fine("Start game button pressed.");
     }
@@ -0,0 +1,49 @@
+package game.gui;
+
+import game.core.GameClock;
+
+import javax.swing.Timer;
+
+/**
+ * A {@link GameClock} backed by a {@link Timer}. This allows the {@link game.core.GameEngine} to start and stop the
+ * Swing game loop without depending on Swing itself.
+ */
+public class TimerClock implements GameClock {
+    /**
+     * The game loop {@code timer} that is started and stopped by this clock.
+     */
+    private final Timer timer;
+
+    /**
+     * Creates a new {@code TimerClock} that controls the given {@code timer}.
+     * @param timer an instance of the game loop timer.
+     */
+    TimerClock(Timer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * Starts the {@code timer}.
+     */
+    @Override
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops the {@code timer}.
+     */
+    @Override
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Returns {@code true} if the {@code timer} is running.
+     * @return true if the timer is running, false otherwise.
+     */
+    @Override
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+}
@@ -5,7 +5,6 @@ import game.LoggerSetup;
 import game.core.Food;
 import game.core.Snake;
 
-import java.awt.Point;
 import java.util.logging.Logger;
 
 /**
@@ -53,21 +52,19 @@ public class CollisionDetector {
      * @return true if the {@code snake} has collided with the wall, false otherwise.
      */
     public boolean checkWallCollision() {
-        Point head = snake.getSnake().get(0);
-        boolean collision = head.x < 0 || head.x >= Constants.NUM_COLS || head.y < 0 || head.y >= Constants.NUM_ROWS;
+        boolean collision = !snake.getGrid().inBounds(snake.getHeadX(), snake.getHeadY());
         if(collision)
-            LOGGER.info("Snake collided with wall.");
+            LOGGER.fine("Snake collided with wall.");
         return collision;
     }
 
     /**
      * Checks if the {@code snake} has collided with the {@code food} object within the current frame. If the head and
-     * food share the same position then they have collided.
+     * food share the same packed cell then they have collided.
      * @return true if the {@code snake} has collided with the {@code food}, false otherwise.
      */
     public boolean checkFoodCollision() {
-        Point head = snake.getSnake().get(0);
-        boolean collision = head.equals(food.getPosition());
+        boolean collision = snake.getHeadCell() == food.getCell();
         if(collision)
             LOGGER.fine("Snake has collided with food");
         return collision;
@@ -75,16 +72,14 @@ public class CollisionDetector {
 
     /**
      * Checks if the {@code snake} has collided with itself within the current frame. If the head shares a position
-     * with any other part of its body other than the head, then it has collided with itself.
+     * with any other part of its body other than the head, then it has collided with itself. The {@code snake} keeps
+     * track of this as it moves, so the check takes constant time.
      * @return true if {@code snake} has collided with itself, false otherwise.
      */
     public boolean checkSelfCollision() {
-        Point head = snake.getSnake().get(0);
-        for (int i = 1; i < snake.getSnake().size(); i++) {
-            if (head.equals(snake.getSnake().get(i))) {
-                LOGGER.info("Snake has collided with itself");
-                return true;
-            }
+        if (snake.hasCollidedWithSelf()) {
+            LOGGER.fine("Snake has collided with itself");
+            return true;
         }
         return false;
     }
@@ -16,8 +16,20 @@ public final class Constants {
     private Constants() {
 
     }
-    /** Icon for each window. */
-    public static final Image ICON = new ImageIcon("src/resources/images/logo.png").getImage();
+    /**
+     * Holds the images used by the GUI. These are kept in their own class so that using {@code Constants} from the
+     * game logic does not load any images, allowing the game to run headless.
+     */
+    public static final class Images {
+        /** Private constructor to prevent instantiation.
+         * @hidden */
+        private Images() {
+
+        }
+
+        /** Icon for each window. */
+        public static final Image ICON = new ImageIcon("src/resources/images/logo.png").getImage();
+    }
 
     /** Width of the game window. */
     public static final int WIDTH = 650;
@@ -37,7 +49,7 @@ public final class Constants {
     /** Number of cols in the game grid. */
     public static final int NUM_COLS = 17;
 
-    /** Delay for the game loop {@link javax.swing.Timer}. */
+    /** Delay in milliseconds between each tick of the game loop. */
     public static final int DELAY = 200;
 
     /**
@@ -0,0 +1,153 @@
+package game.utils;
+
+import game.LoggerSetup;
+
+import java.awt.Point;
+import java.util.logging.Logger;
+
+/**
+ * A record describing the settings of a game, such as the size of the grid and the delay between each tick. A
+ * {@code GameConfig} is passed to {@link game.core.GameEngine#startGame(GameConfig)}, allowing games to be run with
+ * different settings without changing the {@link Constants} file.
+ *
+ * @param numRows number of rows in the game grid
+ * @param numCols number of cols in the game grid
+ * @param delay delay in milliseconds between each tick of the game loop
+ * @param cellSize size in pixels of the cells in the grid when it is drawn
+ * @param snakeInitialLength length of the snake at the start of each game
+ * @param snakeInitialPosition position of the snake's head at the start of the game
+ * @param foodInitialPosition position of the first fruit at the start of the game
+ */
+public record GameConfig(int numRows, int numCols, int delay, int cellSize, int snakeInitialLength,
+                         Point snakeInitialPosition, Point foodInitialPosition) {
+    /**
+     * Logger for logging information.
+     * @hidden
+     */
+    private static final Logger LOGGER = LoggerSetup.getLogger(GameConfig.class.getName());
+
+    /** The default settings, as determined by the {@link Constants} file. */
+    public static final GameConfig DEFAULT = new GameConfig(Constants.NUM_ROWS, Constants.NUM_COLS, Constants.DELAY,
+            Constants.CELL_SIZE, Constants.SNAKE_INITIAL_LENGTH, Constants.SNAKE_INITIAL_POSITION,
+            Constants.FOOD_INITIAL_POSITION);
+
+    /**
+     * Validates the settings. The snake's body extends to the left of its initial position, so the whole body and the
+     * first fruit must fit within the grid without overlapping.
+     * @throws IllegalArgumentException if any of the settings are invalid.
+     *                                  This exception is caught and logged at {@code Level.SEVERE}.
+     */
+    public GameConfig {
+        if (numRows <= 0 || numCols <= 0 || delay < 0 || cellSize <= 0 || snakeInitialLength <= 0
+                || snakeInitialPosition == null || foodInitialPosition == null) {
+            LOGGER.severe("Invalid game config (rows: " + numRows + ", cols: " + numCols + ", delay: " + delay
+                    + ", cell size: " + cellSize + ", initial length: " + snakeInitialLength + ").");
+            throw new IllegalArgumentException("Grid size, cell size and initial length must be positive, delay must "
+                    + "be non-negative, and initial positions must not be null");
+        }
+        snakeInitialPosition = new Point(snakeInitialPosition);
+        foodInitialPosition = new Point(foodInitialPosition);
+        int tailX = snakeInitialPosition.x - snakeInitialLength + 1;
+        boolean snakeFits = tailX >= 0 && snakeInitialPosition.x < numCols
+                && snakeInitialPosition.y >= 0 && snakeInitialPosition.y < numRows;
+        boolean foodFits = foodInitialPosition.x >= 0 && foodInitialPosition.x < numCols
+                && foodInitialPosition.y >= 0 && foodInitialPosition.y < numRows;
+        boolean foodOnSnake = foodInitialPosition.y == snakeInitialPosition.y
+                && foodInitialPosition.x >= tailX && foodInitialPosition.x <= snakeInitialPosition.x;
+        if (!snakeFits || !foodFits || foodOnSnake) {
+            LOGGER.severe("Initial positions do not fit a " + numCols + "x" + numRows + " grid (snake: ["
+                    + snakeInitialPosition.x + ", " + snakeInitialPosition.y + "], food: [" + foodInitialPosition.x
+                    + ", " + foodInitialPosition.y + "]).");
+            throw new IllegalArgumentException("The snake and food must fit within the grid without overlapping");
+        }
+    }
+
+    /**
+     * Creates a {@code GameConfig} for a grid of the given size. The cell size is scaled so the grid fits within the
+     * game window, and the snake and first fruit start on the middle row, in the same places relative to the left and
+     * right walls as they do by default.
+     * @param numRows number of rows in the game grid
+     * @param numCols number of cols in the game grid
+     * @param delay delay in milliseconds between each tick of the game loop
+     * @return the new {@code GameConfig}.
+     * @throws IllegalArgumentException if the grid is too small to fit the snake and the first fruit.
+     */
+    public static GameConfig of(int numRows, int numCols, int delay) {
+        int length = Constants.SNAKE_INITIAL_LENGTH;
+        int row = numRows / 2;
+        int foodX = numCols - (Constants.NUM_COLS - Constants.FOOD_INITIAL_POSITION.x);
+        if (foodX <= length)
+            foodX = numCols - 1;
+        return new GameConfig(numRows, numCols, delay, scaledCellSize(numCols), length, new Point(length, row),
+                new Point(foodX, row));
+    }
+
+    /**
+     * Creates a {@code GameConfig} from the system properties {@code snake.rows}, {@code snake.cols},
+     * {@code snake.delay}, and {@code snake.cellSize}, such as {@code java -Dsnake.rows=1000 -Dsnake.cols=1000
+     * -Dsnake.delay=1}. Any property that is not set keeps its value from {@link #DEFAULT}, while the initial
+     * positions are placed as in {@link #of(int, int, int)} if the grid size is changed.
+     * @return the new {@code GameConfig}.
+     * @throws IllegalArgumentException if any of the settings are invalid.
+     */
+    public static GameConfig fromSystemProperties() {
+        int numRows = Integer.getInteger("snake.rows", DEFAULT.numRows);
+        int numCols = Integer.getInteger("snake.cols", DEFAULT.numCols);
+        int delay = Integer.getInteger("snake.delay", DEFAULT.delay);
+        GameConfig config = numRows == DEFAULT.numRows && numCols == DEFAULT.numCols
+                ? DEFAULT.withDelay(delay) : of(numRows, numCols, delay);
+        Integer cellSize = Integer.getInteger("snake.cellSize");
+        if (cellSize != null)
+            config = config.withCellSize(cellSize);
+        LOGGER.config("Loaded game config: " + config + ".");
+        return config;
+    }
+
+    /**
+     * Creates a copy of this {@code GameConfig} with a different delay.
+     * @param delay delay in milliseconds between each tick of the game loop
+     * @return the new {@code GameConfig}.
+     */
+    public GameConfig withDelay(int delay) {
+        return new GameConfig(numRows, numCols, delay, cellSize, snakeInitialLength, snakeInitialPosition,
+                foodInitialPosition);
+    }
+
+    /**
+     * Creates a copy of this {@code GameConfig} with a different cell size.
+     * @param cellSize size in pixels of the cells in the grid when it is drawn
+     * @return the new {@code GameConfig}.
+     */
+    public GameConfig withCellSize(int cellSize) {
+        return new GameConfig(numRows, numCols, delay, cellSize, snakeInitialLength, snakeInitialPosition,
+                foodInitialPosition);
+    }
+
+    /**
+     * Gets a copy of the position of the snake's head at the start of the game.
+     * @return the initial position of the snake's head.
+     */
+    @Override
+    public Point snakeInitialPosition() {
+        return new Point(snakeInitialPosition);
+    }
+
+    /**
+     * Gets a copy of the position of the first fruit at the start of the game.
+     * @return the initial position of the first fruit.
+     */
+    @Override
+    public Point foodInitialPosition() {
+        return new Point(foodInitialPosition);
+    }
+
+    /**
+     * Calculates the size of the cells so that a grid with the given number of cols fits within the game window.
+     * Calculated the same way as {@link Constants#CELL_SIZE}.
+     * @param numCols number of cols in the game grid
+     * @return the size of the cells, which is at least 1.
+     */
+    private static int scaledCellSize(int numCols) {
+        return Math.max(1, (int) ((Constants.WIDTH - 2.0 * Constants.PADDING_SIZE) / numCols + 0.5));
+    }
+}
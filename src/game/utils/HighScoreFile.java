@@ -0,0 +1,198 @@
+package game.utils;
+
+import game.utils.HighScoreManager.HighScore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Iterator;
+
+/**
+ * A read-only view of a binary highscores file, read through a {@link MappedByteBuffer}. Opening the file only reads
+ * its header, and each highscore is decoded when it is retrieved, so a file with millions of highscores opens
+ * instantly.
+ * <p>
+ *     The file starts with a header holding {@link #MAGIC}, the format version, and the number of highscores. It is
+ *     followed by one fixed width record per highscore in rank order, each holding the score, the date as an epoch
+ *     day, and the offset and length of the name. The names are stored as UTF-8 after the last record.
+ * </p>
+ */
+final class HighScoreFile {
+    /** Identifies the start of a highscores file. Spells {@code SNKH} in ASCII. */
+    private static final int MAGIC = 0x534E4B48;
+
+    /** The version of the file format. */
+    private static final int VERSION = 1;
+
+    /** The size of the header in bytes. */
+    private static final int HEADER_SIZE = 16;
+
+    /** The size of each record in bytes. */
+    private static final int RECORD_SIZE = 16;
+
+    /** The number of records buffered before they are written when writing a file. */
+    private static final int WRITE_BATCH = 4096;
+
+    /** A file with no highscores, used when the file does not exist. */
+    static final HighScoreFile EMPTY = new HighScoreFile(null, 0);
+
+    /** The mapped contents of the file, or {@code null} if it has no highscores. */
+    private final MappedByteBuffer buffer;
+
+    /** The number of highscores in the file. */
+    private final int size;
+
+    /**
+     * Creates a view of a mapped file.
+     * @param buffer the mapped contents of the file.
+     * @param size the number of highscores in the file.
+     */
+    private HighScoreFile(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Maps the highscores file at the given path.
+     * @param file the path of the file.
+     * @return a view of the file, or {@link #EMPTY} if it does not exist.
+     * @throws IOException if the file could not be read or is not a highscores file.
+     */
+    static HighScoreFile open(Path file) throws IOException {
+        if (!Files.exists(file))
+            return EMPTY;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE)
+                throw new IOException("Not a highscores file: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC)
+                throw new IOException("Not a highscores file: " + file);
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException("Unsupported highscores file version " + buffer.getInt(4) + ": " + file);
+            int size = buffer.getInt(8);
+            if (size < 0 || HEADER_SIZE + (long) size * RECORD_SIZE > length)
+                throw new IOException("Truncated highscores file: " + file);
+            return new HighScoreFile(buffer, size);
+        }
+    }
+
+    /**
+     * Writes the given highscores to a new file, replacing the file at the given path in a single step.
+     * <p>
+     *     The file must not be mapped by any process when it is replaced. A mapping stays open until its buffer is
+     *     garbage collected, and Windows refuses to replace or delete a file while it is mapped, so new highscores
+     *     should be written to a file of their own rather than over a file that has been opened. If the file cannot
+     *     be replaced, the new file is deleted and the old file is left as it was.
+     * </p>
+     * @param file the path of the file.
+     * @param size the number of highscores.
+     * @param rows the highscores in rank order. Must produce exactly {@code size} highscores.
+     * @throws IOException if the file could not be written or replaced.
+     */
+    static void write(Path file, int size, Iterator<HighScore> rows) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0).flip();
+            writeFully(channel, header, 0);
+
+            // records and names are buffered separately and written to their own regions of the file
+            ByteBuffer records = ByteBuffer.allocate(WRITE_BATCH * RECORD_SIZE);
+            ByteBuffer names = ByteBuffer.allocate(WRITE_BATCH * RECORD_SIZE);
+            long recordPos = HEADER_SIZE;
+            long namesPos = HEADER_SIZE + (long) size * RECORD_SIZE;
+            long namePos = namesPos;
+            for (int i = 0; i < size; i++) {
+                HighScore hs = rows.next();
+                byte[] name = hs.name().getBytes(StandardCharsets.UTF_8);
+                if (namePos + name.length > Integer.MAX_VALUE)
+                    throw new IOException("Too many highscores to write to " + file);
+                records.putInt(hs.score()).putInt((int) hs.date().toEpochDay()).putInt((int) namePos)
+                        .putInt(name.length);
+                namePos += name.length;
+                if (name.length > names.remaining()) {
+                    names.flip();
+                    namesPos += writeFully(channel, names, namesPos);
+                    names.clear();
+                }
+                if (name.length > names.capacity())
+                    namesPos += writeFully(channel, ByteBuffer.wrap(name), namesPos);
+                else
+                    names.put(name);
+                if (!records.hasRemaining()) {
+                    records.flip();
+                    recordPos += writeFully(channel, records, recordPos);
+                    records.clear();
+                }
+            }
+            records.flip();
+            writeFully(channel, records, recordPos);
+            names.flip();
+            writeFully(channel, names, namesPos);
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of highscores in the file.
+     * @return the number of highscores.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the score of the highscore at the given rank without decoding the rest of it.
+     * @param index the rank of the highscore, where {@code 0} is the best.
+     * @return the score.
+     */
+    int score(int index) {
+        return buffer.getInt(HEADER_SIZE + index * RECORD_SIZE);
+    }
+
+    /**
+     * Decodes the highscore at the given rank.
+     * @param index the rank of the highscore, where {@code 0} is the best.
+     * @return the highscore.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+     */
+    HighScore get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " highscores");
+        int record = HEADER_SIZE + index * RECORD_SIZE;
+        byte[] name = new byte[buffer.getInt(record + 12)];
+        buffer.get(buffer.getInt(record + 8), name);
+        return new HighScore(buffer.getInt(record), new String(name, StandardCharsets.UTF_8),
+                LocalDate.ofEpochDay(buffer.getInt(record + 4)));
+    }
+
+    /**
+     * Writes the whole buffer to the channel at the given position.
+     * @param channel the channel to write to.
+     * @param buf the bytes to write.
+     * @param position the position in the file to write at.
+     * @return the number of bytes written.
+     * @throws IOException if the bytes could not be written.
+     */
+    private static int writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        int written = 0;
+        while (buf.hasRemaining())
+            written += channel.write(buf, position + written);
+        return written;
+    }
+}
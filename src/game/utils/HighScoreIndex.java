@@ -0,0 +1,181 @@
+package game.utils;
+
+import game.utils.HighScoreManager.HighScore;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Aggregations of the highscores that are kept up to date as each highscore is added, so they can be queried without
+ * scanning every highscore.
+ * <p>
+ *     The index holds the best highscore of each player, ordered so the best players can be listed, the best
+ *     {@link #TOP_SIZE} highscores of each day and of each week, where weeks start on Monday, and the number of
+ *     highscores in each range of {@link #BUCKET_WIDTH} scores. Adding a highscore takes logarithmic time in the number
+ *     of players and in the number of buckets, plus time linear in {@link #TOP_SIZE} to insert it into the sorted
+ *     lists of its day and week. A highscore that does not make the list of its day or week skips that insertion.
+ * </p>
+ * <p>
+ *     Every method is synchronized, so the index can be read while another thread adds highscores to it.
+ * </p>
+ */
+final class HighScoreIndex {
+    /** The number of highscores kept for each day and each week. */
+    static final int TOP_SIZE = 100;
+
+    /** The number of scores counted by each bucket of the histogram. */
+    static final int BUCKET_WIDTH = 10;
+
+    /** Orders players' best highscores from best to worst, with equal scores ordered by name. */
+    private static final Comparator<HighScore> PLAYER_ORDER = Comparator.comparingInt(HighScore::score).reversed()
+            .thenComparing(HighScore::name);
+
+    /** The best highscore of each player, with the player's name as the key. */
+    private final Map<String, HighScore> best;
+
+    /** The best highscore of each player in {@code PLAYER_ORDER}. */
+    private final TreeSet<HighScore> players;
+
+    /** The best highscores of each day in rank order, with the day as the key. */
+    private final Map<LocalDate, List<HighScore>> days;
+
+    /** The best highscores of each week in rank order, with the Monday the week starts on as the key. */
+    private final Map<LocalDate, List<HighScore>> weeks;
+
+    /** The number of highscores in each bucket, with the lowest score of the bucket as the key. */
+    private final TreeMap<Integer, Integer> histogram;
+
+    /**
+     * Creates an empty index.
+     */
+    HighScoreIndex() {
+        best = new HashMap<>();
+        players = new TreeSet<>(PLAYER_ORDER);
+        days = new HashMap<>();
+        weeks = new HashMap<>();
+        histogram = new TreeMap<>();
+    }
+
+    /**
+     * Adds a highscore to every aggregation. Highscores with the same score should be added in the order they were
+     * saved, as earlier highscores are ranked first.
+     * @param hs the highscore to add.
+     */
+    synchronized void add(HighScore hs) {
+        HighScore previous = best.get(hs.name());
+        if (previous == null || hs.score() > previous.score()) {
+            if (previous != null)
+                players.remove(previous);
+            best.put(hs.name(), hs);
+            players.add(hs);
+        }
+        offer(days.computeIfAbsent(hs.date(), d -> new ArrayList<>()), hs);
+        offer(weeks.computeIfAbsent(weekOf(hs.date()), d -> new ArrayList<>()), hs);
+        histogram.merge(Math.floorDiv(hs.score(), BUCKET_WIDTH) * BUCKET_WIDTH, 1, Integer::sum);
+    }
+
+    /**
+     * Inserts a highscore into a list of the best highscores after every highscore with a greater or equal score,
+     * found with a binary search, and drops the last highscore if the list has grown past {@link #TOP_SIZE}.
+     * @param top the best highscores in rank order.
+     * @param hs the highscore to insert.
+     */
+    private static void offer(List<HighScore> top, HighScore hs) {
+        if (top.size() == TOP_SIZE && top.get(TOP_SIZE - 1).score() >= hs.score())
+            return;
+        int l = 0;
+        int r = top.size();
+        while (l < r) {
+            int m = (l + r) >>> 1;
+            if (top.get(m).score() >= hs.score())
+                l = m + 1;
+            else
+                r = m;
+        }
+        top.add(l, hs);
+        if (top.size() > TOP_SIZE)
+            top.remove(TOP_SIZE);
+    }
+
+    /**
+     * Gets the best highscore of a player.
+     * @param name the name of the player.
+     * @return the player's best highscore, or {@code null} if the player has no highscores.
+     */
+    synchronized HighScore best(String name) {
+        return best.get(name);
+    }
+
+    /**
+     * Gets the best highscore of each of the best players.
+     * @param k the maximum number of players.
+     * @return a new list of the best highscore of each of the best {@code k} players, from best to worst.
+     */
+    synchronized List<HighScore> topPlayers(int k) {
+        List<HighScore> top = new ArrayList<>(Math.min(k, players.size()));
+        for (HighScore hs : players) {
+            if (top.size() == k)
+                break;
+            top.add(hs);
+        }
+        return top;
+    }
+
+    /**
+     * Gets the best highscores saved on a day.
+     * @param day the day.
+     * @param k the maximum number of highscores, at most {@link #TOP_SIZE}.
+     * @return a new list of the best {@code k} highscores of the day in rank order.
+     */
+    synchronized List<HighScore> topOfDay(LocalDate day, int k) {
+        return head(days.get(day), k);
+    }
+
+    /**
+     * Gets the best highscores saved in the week, starting on Monday, containing a day.
+     * @param day any day of the week.
+     * @param k the maximum number of highscores, at most {@link #TOP_SIZE}.
+     * @return a new list of the best {@code k} highscores of the week in rank order.
+     */
+    synchronized List<HighScore> topOfWeek(LocalDate day, int k) {
+        return head(weeks.get(weekOf(day)), k);
+    }
+
+    /**
+     * Gets the number of highscores in each bucket of {@link #BUCKET_WIDTH} scores.
+     * @return a new map from the lowest score of each bucket to the number of highscores in it, in increasing order
+     *         of score. Buckets with no highscores are left out.
+     */
+    synchronized NavigableMap<Integer, Integer> histogram() {
+        return new TreeMap<>(histogram);
+    }
+
+    /**
+     * Copies the start of a list of highscores.
+     * @param top the list, or {@code null} if there are no highscores.
+     * @param k the maximum number of highscores to copy.
+     * @return a new list of at most {@code k} highscores.
+     */
+    private static List<HighScore> head(List<HighScore> top, int k) {
+        if (top == null)
+            return new ArrayList<>();
+        return new ArrayList<>(top.subList(0, Math.min(k, top.size())));
+    }
+
+    /**
+     * Gets the Monday the week containing a day starts on.
+     * @param day the day.
+     * @return the first day of the week.
+     */
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(DayOfWeek.MONDAY);
+    }
+}
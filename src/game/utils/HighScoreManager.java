@@ -4,18 +4,80 @@ import game.LoggerSetup;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Class used to load and save highscores to a given csv file.
+ * Class used to load and save highscores to a given binary highscores file. It is safe to use from many threads, and
+ * several processes may save highscores to the same file at once.
+ * <p>
+ *     The highscores file is a snapshot of the highscores in rank order, stored in a fixed width binary format that is
+ *     memory-mapped rather than parsed, so opening it takes the same time no matter how many highscores it holds.
+ *     New highscores are not written to it directly; instead each one is appended to a log file next to it (such as
+ *     {@code highscores.log} for {@code highscores.dat}) and synced to disk, so saving a highscore only writes a single
+ *     line. The log is replayed on top of the snapshot when the highscores are loaded, and once it has grown large
+ *     enough it is compacted into a new snapshot.
+ * </p>
+ * <p>
+ *     Each compaction writes the new snapshot to a file of its own named after its generation (such as
+ *     {@code highscores.3.dat}), as the file of the old snapshot may still be mapped by this or another process, and
+ *     Windows does not allow a mapped file to be replaced. The first line of the log records the generation of the
+ *     snapshot it was started for and how many highscores that snapshot held, so the log always names the current
+ *     snapshot and a new snapshot is only used once a new log has been started for it. The highscores file itself
+ *     holds the first generation. Files of earlier snapshots are deleted after each compaction; one that is still
+ *     mapped cannot be deleted on Windows, so it is left for a later compaction. If the log does not match the count
+ *     of its snapshot, which happens when a compaction by an older version was interrupted, the log is already part
+ *     of the snapshot and is discarded rather than replayed twice.
+ * </p>
+ * <p>
+ *     Highscores can be imported from and exported to csv files with one {@code score,name,date} line per highscore.
+ *     If the highscores file does not exist but a csv file with the same name does, it is imported automatically.
+ * </p>
+ * <p>
+ *     Highscores are queried by rank with {@link #get(int)}, {@link #topK(int)} and {@link #page(int, int)}, which
+ *     only decode the highscores they return. The position of each recent highscore among the snapshot is found with
+ *     a binary search over the mapped scores and cached until the highscores change, so a highscore is found by rank
+ *     in logarithmic time.
+ * </p>
+ * <p>
+ *     Recent highscores are kept in a {@link ConcurrentSkipListMap} keyed by score and the order they were added in.
+ *     Saves are committed in groups: each saving thread queues its highscore, and whichever thread gets to the files
+ *     first appends every queued highscore to the log with a single sync, so threads saving at once share the cost of
+ *     syncing. The files are only changed while holding an exclusive lock on a lock file next to them (such as
+ *     {@code highscores.lock}), and highscores saved or compacted by other processes are read from the log before
+ *     every save, so processes never lose each other's highscores. Call {@link #refresh()} to read them without
+ *     saving. Only one {@code HighScoreManager} should be created for each file in a process.
+ * </p>
+ * <p>
+ *     The best highscore of each player, the best highscores of each day and week, and a histogram of the scores are
+ *     kept in a {@link HighScoreIndex}. It is built with a single pass over the highscores the first time one of them
+ *     is queried, and from then on each highscore is added to it as it is saved, so polling them does not scan the
+ *     highscores again.
+ * </p>
  */
 public class HighScoreManager {
     /**
@@ -24,57 +86,284 @@ public class HighScoreManager {
      */
     private static final Logger LOGGER = LoggerSetup.getLogger(HighScoreManager.class.getName());
 
+    /** Starts the first line of the log, which is followed by the number of highscores in the snapshot. */
+    private static final String LOG_HEADER = "#base,";
+
+    /** The minimum number of highscores in the log before it is compacted. */
+    private static final int MIN_COMPACT_SIZE = 256;
+
+    /** Orders highscores from best to worst. Sorting with it keeps equal scores in the order they were saved. */
+    private static final Comparator<HighScore> RANK_ORDER = Comparator.comparingInt(HighScore::score).reversed();
+
+    /**
+     * The path to the highscores file, which holds the first generation of the snapshot.
+     */
+    private final Path path;
+
+    /**
+     * The path to the log of highscores saved since the highscores file was last written.
+     */
+    private final Path logPath;
+
+    /**
+     * The path to the file locked by whichever process is reading or writing the highscores file and log.
+     */
+    private final Path lockPath;
+
+    /**
+     * The highscores in the highscores file. Only replaced while holding the write lock of {@code stateLock}.
+     */
+    private volatile HighScoreFile snapshot;
+
+    /**
+     * The generation of the snapshot, which names the file it is stored in. Guarded by the {@code ioLock}.
+     */
+    private long generation;
+
     /**
-     * A list containing all saved highscores.
+     * The highscores in the log, in rank order.
      */
-    private final List<HighScore> highscores;
+    private final ConcurrentSkipListMap<Key, HighScore> recent;
+
+    /**
+     * Orders highscores with the same score by when they were added to {@code recent}.
+     */
+    private final AtomicLong sequence;
+
+    /**
+     * Incremented every time the highscores change, so an out of date {@code view} is created again.
+     */
+    private final AtomicLong version;
+
+    /**
+     * The most recently created view of the highscores, used by every query until the highscores change.
+     */
+    private volatile View view;
+
+    /**
+     * The aggregations of the highscores, or {@code null} if they have not been queried yet or need to be built again
+     * because another process compacted the log. Only replaced while holding the {@code ioLock}.
+     */
+    private volatile HighScoreIndex index;
+
+    /**
+     * Held for reading while a view is created and for writing while the snapshot is replaced, so a view never pairs
+     * a snapshot with recent highscores from a different snapshot.
+     */
+    private final ReentrantReadWriteLock stateLock;
+
     /**
-     * The path to the highscores file.
+     * Held while the highscores file and log are read or written, so only one thread in this process uses them at a
+     * time.
      */
-    private final String path;
+    private final ReentrantLock ioLock;
 
     /**
-     * Constructs a HighScoreManger and loads highscores from the given csv file name.
+     * Highscores waiting to be appended to the log by the next thread to hold the {@code ioLock}.
+     */
+    private final ConcurrentLinkedQueue<Pending> pending;
+
+    /**
+     * The number of bytes of the log that have been read or written. Guarded by the {@code ioLock}.
+     */
+    private long logOffset;
+
+    /**
+     * The number of highscores in {@code recent}. Guarded by the {@code ioLock}.
+     */
+    private int recentSize;
+
+    /**
+     * Constructs a HighScoreManger and opens the highscores in the given binary file, followed by any highscores
+     * saved to its log since it was last written. If the file does not exist, highscores are imported from the csv
+     * file with the same name if there is one.
      * @param path the path to the highscores file.
-     * @throws IllegalArgumentException if the file found at the path is not of type .csv
+     * @throws IllegalArgumentException if the file found at the path is not of type .dat
      */
     public HighScoreManager(String path) {
-        if (!path.endsWith(".csv")) {
-            LOGGER.severe("The file at the path provided was not of type .csv. Path: " + path);
-            throw new IllegalArgumentException("The file must be of type .csv");
+        if (!path.endsWith(".dat")) {
+            LOGGER.severe("The file at the path provided was not of type .dat. Path: " + path);
+            throw new IllegalArgumentException("The file must be of type .dat");
         }
-        this.path = path;
-        highscores = new ArrayList<>();
-        loadHighScores();
+        String base = path.substring(0, path.length() - ".dat".length());
+        this.path = Paths.get(path);
+        logPath = Paths.get(base + ".log");
+        lockPath = Paths.get(base + ".lock");
+        snapshot = HighScoreFile.EMPTY;
+        generation = 0;
+        recent = new ConcurrentSkipListMap<>();
+        sequence = new AtomicLong();
+        version = new AtomicLong();
+        stateLock = new ReentrantReadWriteLock();
+        ioLock = new ReentrantLock();
+        pending = new ConcurrentLinkedQueue<>();
+        logOffset = 0;
+        recentSize = 0;
+
+        ioLock.lock();
+        try {
+            FileChannel lock = lockFiles();
+            try {
+                Path csv = Paths.get(base + ".csv");
+                long current = logGeneration();
+                if (current == 0 && !Files.exists(this.path) && Files.exists(csv))
+                    migrate(csv);
+                loadHighScores(current);
+                catchUp();
+            } finally {
+                lock.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load high scores from file: " + path, e);
+        } finally {
+            ioLock.unlock();
+        }
+        LOGGER.config("Loaded " + size() + " high scores (" + recentSize + " from the log).");
     }
 
     /**
-     * Loads all highscores saved in the csv file into a List. Each line is read by a {@link BufferedReader}
-     * and is then split by every ','. Each token is then parsed into the correct data type and
-     * stored as a HighScore record within the list.
+     * Writes the highscores in a csv file to the highscores file. The log is kept, as it was started on top of the csv
+     * file, so it is replayed on top of the new highscores file.
+     * @param csv the path to the csv file.
      */
-    private void loadHighScores() {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                try {
-                    String[] tokens = line.split(",");
-                    int score = Integer.parseInt(tokens[0]);
-                    String name = tokens[1];
-                    LocalDate date = LocalDate.parse(tokens[2]);
-                    highscores.add(new HighScore(score, name, date));
-                } catch (DateTimeParseException | NumberFormatException e) {
-                    LOGGER.log(Level.WARNING, "Skipping invalid high score entry: " + line, e);
+    private void migrate(Path csv) {
+        LOGGER.info("No high score file found at " + path + ". Importing " + csv + ".");
+        try {
+            List<HighScore> rows = readCsv(csv);
+            HighScoreFile.write(path, rows.size(), rows.iterator());
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to import high scores from file: " + csv, e);
+        }
+    }
+
+    /**
+     * Maps the snapshot of the given generation, replacing the current snapshot and discarding the recent highscores
+     * if it is a different generation or holds a different number of highscores, which means another process has
+     * compacted the log into it. Only the header is read, so this takes constant time. Must be called while holding
+     * the {@code ioLock}.
+     * @param gen the generation of the snapshot.
+     * @throws IOException if the snapshot could not be read.
+     */
+    private void loadHighScores(long gen) throws IOException {
+        HighScoreFile file = HighScoreFile.open(snapshotPath(gen));
+        if (gen == generation && file.size() == snapshot.size())
+            return;
+        stateLock.writeLock().lock();
+        try {
+            snapshot = file;
+            generation = gen;
+            recent.clear();
+            recentSize = 0;
+            logOffset = 0;
+            version.incrementAndGet();
+            // the new snapshot may hold highscores this process has never seen
+            index = null;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts every highscore appended to the log since it was last read, including highscores saved by other
+     * processes, into {@code recent} in the order they were saved. If the log was started for a different snapshot,
+     * the snapshot it names is mapped, as another process has compacted the log into it, and if the log still does
+     * not match it is already part of the snapshot and is discarded. Must be called while holding the {@code ioLock}
+     * and the file lock.
+     * @throws IOException if the snapshot or log could not be read.
+     */
+    private void catchUp() throws IOException {
+        if (!Files.exists(logPath)) {
+            loadHighScores(generation);
+            resetLog();
+            return;
+        }
+        boolean stale = false;
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            LogHeader header = readHeader(channel);
+            if (header != null && (header.generation() != generation || header.base() != snapshot.size())) {
+                loadHighScores(header.generation());
+                stale = header.base() != snapshot.size();
+            }
+            long size = channel.size();
+            if (!stale && size > logOffset) {
+                ByteBuffer buf = ByteBuffer.allocate((int) (size - logOffset));
+                while (buf.hasRemaining() && channel.read(buf, logOffset + buf.position()) >= 0);
+                // only whole lines are read, as a line without a line break was never synced by its writer
+                byte[] bytes = buf.array();
+                int end = buf.position();
+                while (end > 0 && bytes[end - 1] != '\n')
+                    end--;
+                for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+                    if (line.isEmpty() || line.startsWith(LOG_HEADER))
+                        continue;
+                    HighScore hs = parse(line);
+                    if (hs != null)
+                        insert(hs);
                 }
+                logOffset += end;
             }
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load high scores from file: " + path, e);
+        }
+        if (stale) {
+            LOGGER.info("High score log is already part of " + snapshotPath(generation) + ". Discarding it.");
+            resetLog();
         }
     }
 
     /**
-     * Saves a new {@code HighScore} if it's a valid and inserts it into the {@code highscores} list in the correct position
-     * based on a binary search. The list is then written back into the file.
+     * Reads which snapshot the log was started for from its first line. A log started by an older version only
+     * records the number of highscores, and was started for the first generation.
+     * @param channel a channel of the log.
+     * @return the header, or {@code null} if the log does not start with a valid header.
+     * @throws IOException if the log could not be read.
+     */
+    private static LogHeader readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        while (buf.hasRemaining() && channel.read(buf, buf.position()) >= 0);
+        String head = new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+        int end = head.indexOf('\n');
+        if (!head.startsWith(LOG_HEADER) || end < 0)
+            return null;
+        try {
+            String[] tokens = head.substring(LOG_HEADER.length(), end).trim().split(",");
+            int base = Integer.parseInt(tokens[0]);
+            long gen = tokens.length > 1 ? Long.parseLong(tokens[1]) : 0;
+            return base < 0 || gen < 0 ? null : new LogHeader(base, gen);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the generation of the snapshot the log was started for. Must be called while holding the {@code ioLock}
+     * and the file lock.
+     * @return the generation, or {@code 0} if there is no log or it does not start with a valid header.
+     * @throws IOException if the log could not be read.
+     */
+    private long logGeneration() throws IOException {
+        if (!Files.exists(logPath))
+            return 0;
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            LogHeader header = readHeader(channel);
+            return header == null ? 0 : header.generation();
+        }
+    }
+
+    /**
+     * Gets the path of the file holding the snapshot of the given generation.
+     * @param gen the generation of the snapshot.
+     * @return the highscores file for the first generation, or a file named after the generation next to it.
+     */
+    private Path snapshotPath(long gen) {
+        if (gen == 0)
+            return path;
+        String name = path.getFileName().toString();
+        return path.resolveSibling(name.substring(0, name.length() - ".dat".length()) + "." + gen + ".dat");
+    }
+
+    /**
+     * Saves a new {@code HighScore} if it's a valid and waits until it has been appended to the log, along with any
+     * highscores other threads are saving at the same time. The log is compacted into the highscores file once it
+     * holds more than a quarter as many highscores as the file.
      *
      * @param score the score the player got in the current round.
      * @param name the name the player entered after losing.
@@ -87,43 +376,523 @@ public class HighScoreManager {
                     "cannot be null or blank.");
         }
         HighScore newScore = new HighScore(score, name, LocalDate.now());
+        Pending entry = new Pending(newScore);
+        pending.add(entry);
+
+        ioLock.lock();
+        try {
+            // the thread that held the lock before this one may have committed this highscore along with its own
+            if (!entry.committed)
+                commit();
+        } finally {
+            ioLock.unlock();
+        }
+        LOGGER.info("Saved Highscore (name: " + name + " score: " + score + " date: " + newScore.date + ").");
+    }
+
+    /**
+     * Appends every queued highscore to the log with a single sync and inserts them into {@code recent}, after first
+     * reading any highscores saved by other processes. The log is then compacted if it has grown large enough. Must
+     * be called while holding the {@code ioLock}.
+     */
+    private void commit() {
+        List<Pending> batch = new ArrayList<>();
+        for (Pending p = pending.poll(); p != null; p = pending.poll())
+            batch.add(p);
+        StringBuilder lines = new StringBuilder();
+        for (Pending p : batch)
+            lines.append(format(p.highScore));
+
+        boolean inserted = false;
+        try {
+            FileChannel lock = lockFiles();
+            try {
+                catchUp();
+                try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND)) {
+                    ByteBuffer buf = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    while (buf.hasRemaining())
+                        channel.write(buf);
+                    channel.force(false);
+                    logOffset = channel.size();
+                }
+                for (Pending p : batch)
+                    insert(p.highScore);
+                inserted = true;
+                if (recentSize >= Math.max(MIN_COMPACT_SIZE, snapshot.size() / 4))
+                    compact(List.of());
+            } finally {
+                lock.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save highscore to file at " + logPath + ".", e);
+        } finally {
+            // highscores that could not be written are still kept until the program exits
+            if (!inserted) {
+                for (Pending p : batch)
+                    insert(p.highScore);
+            }
+            for (Pending p : batch)
+                p.committed = true;
+        }
+    }
+
+    /**
+     * Reads any highscores saved by other processes since the highscores file and log were last read or written.
+     */
+    public void refresh() {
+        ioLock.lock();
+        try {
+            FileChannel lock = lockFiles();
+            try {
+                catchUp();
+            } finally {
+                lock.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to refresh high scores from file: " + path, e);
+        } finally {
+            ioLock.unlock();
+        }
+    }
 
-        int l = 0;
-        int r = highscores.size() - 1;
-        int m;
-
-        while (l <= r) {
-            m = (l + r) / 2;
-            HighScore curScore = highscores.get(m);
-
-            if (curScore.score() < score) {
-                r = m - 1;
-            } else if (curScore.score() > score) {
-                l = m + 1;
-            } else {
-                l = m + 1;
-                break;
+    /**
+     * Adds every highscore in the given csv file to the saved highscores and writes them all to a new highscores
+     * file. Invalid lines are skipped.
+     * @param csvPath the path to the csv file.
+     * @return the number of highscores imported.
+     */
+    public int importCsv(String csvPath) {
+        List<HighScore> imported;
+        ioLock.lock();
+        try {
+            FileChannel lock = lockFiles();
+            try {
+                imported = readCsv(Paths.get(csvPath));
+                catchUp();
+                compact(imported);
+                HighScoreIndex idx = index;
+                if (idx != null) {
+                    for (HighScore hs : imported)
+                        idx.add(hs);
+                }
+            } finally {
+                lock.close();
             }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to import high scores from file: " + csvPath, e);
+            return 0;
+        } finally {
+            ioLock.unlock();
         }
+        LOGGER.info("Imported " + imported.size() + " high scores from " + csvPath + ".");
+        return imported.size();
+    }
 
-        highscores.add(l, newScore);
+    /**
+     * Reads every valid highscore in a csv file. Invalid lines are skipped.
+     * @param csv the path to the csv file.
+     * @return the highscores in rank order.
+     * @throws IOException if the file could not be read.
+     */
+    private static List<HighScore> readCsv(Path csv) throws IOException {
+        List<HighScore> rows = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                HighScore hs = parse(line);
+                if (hs != null)
+                    rows.add(hs);
+            }
+        }
+        rows.sort(RANK_ORDER);
+        return rows;
+    }
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
-            for (HighScore hs : highscores) {
-                bw.write(String.format("%d,%s,%s\n", hs.score(), hs.name(), hs.date()));
+    /**
+     * Writes every saved highscore to the given csv file in rank order, replacing the file if it exists.
+     * @param csvPath the path to the csv file.
+     * @throws IOException if the file could not be written.
+     */
+    public void exportCsv(String csvPath) throws IOException {
+        View v = view();
+        try (BufferedWriter bw = Files.newBufferedWriter(Paths.get(csvPath), StandardCharsets.UTF_8)) {
+            Iterator<HighScore> it = v.iterator();
+            while (it.hasNext())
+                bw.write(format(it.next()));
+        }
+        LOGGER.info("Exported " + v.size() + " high scores to " + csvPath + ".");
+    }
+
+    /**
+     * Inserts a {@code HighScore} into {@code recent} after every highscore with a greater or equal score. Must be
+     * called while holding the {@code ioLock}.
+     * @param newScore the highscore to insert.
+     */
+    private void insert(HighScore newScore) {
+        recent.put(new Key(newScore.score(), sequence.getAndIncrement()), newScore);
+        recentSize++;
+        version.incrementAndGet();
+        HighScoreIndex idx = index;
+        if (idx != null)
+            idx.add(newScore);
+    }
+
+    /**
+     * Writes every highscore, along with the given extra highscores, to the snapshot file of the next generation. The
+     * new file is then mapped, a new empty log is started for it, and the files of earlier snapshots are deleted.
+     * Must be called while holding the {@code ioLock} and the file lock.
+     * @param extra highscores to add, in rank order. Placed after saved highscores with the same score.
+     * @throws IOException if the highscores could not be written.
+     */
+    private void compact(List<HighScore> extra) throws IOException {
+        View v = view();
+        long next = generation + 1;
+        Path target = snapshotPath(next);
+        HighScoreFile.write(target, v.size() + extra.size(), merge(v.iterator(), extra.iterator()));
+        HighScoreFile file = HighScoreFile.open(target);
+        stateLock.writeLock().lock();
+        try {
+            snapshot = file;
+            generation = next;
+            recent.clear();
+            recentSize = 0;
+            version.incrementAndGet();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        resetLog();
+        deleteOldSnapshots();
+        LOGGER.info("Compacted " + file.size() + " high scores into " + target + ".");
+    }
+
+    /**
+     * Deletes the files of every snapshot older than the current one. Views created before the last compaction may
+     * still map them, and on Windows a mapped file cannot be deleted, so any file that cannot be deleted is left for
+     * a later compaction. Must be called while holding the {@code ioLock} and the file lock.
+     */
+    private void deleteOldSnapshots() {
+        String name = path.getFileName().toString();
+        String stem = name.substring(0, name.length() - ".dat".length()) + ".";
+        Path dir = path.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, stem + "*.dat")) {
+            for (Path file : files) {
+                String gen = file.getFileName().toString();
+                gen = gen.substring(stem.length(), gen.length() - ".dat".length());
+                if (!gen.isEmpty() && gen.chars().allMatch(Character::isDigit) && gen.length() <= 18
+                        && Long.parseLong(gen) < generation)
+                    deleteSnapshot(file);
             }
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to save highscore to file at " + path + ".", e);
+            LOGGER.log(Level.FINE, "Failed to list old high score snapshots in " + dir, e);
         }
-        LOGGER.info("Saved Highscore (name: " + name + " score: " + score + " date: " + newScore.date + ").");
+        deleteSnapshot(path);
+    }
+
+    /**
+     * Deletes the file of an old snapshot if it exists, leaving it in place if it cannot be deleted.
+     * @param file the path of the file.
+     */
+    private static void deleteSnapshot(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not delete old high score snapshot " + file + ". Retrying later.", e);
+        }
+    }
+
+    /**
+     * Replaces the log in a single step with an empty log started for the current snapshot. Must be called while
+     * holding the {@code ioLock} and the file lock.
+     * @throws IOException if the log could not be written.
+     */
+    private void resetLog() throws IOException {
+        byte[] header = (LOG_HEADER + snapshot.size() + "," + generation + "\n").getBytes(StandardCharsets.UTF_8);
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        Files.write(tmp, header);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logOffset = header.length;
+    }
+
+    /**
+     * Opens the lock file, creating it if it does not exist, and waits until this process holds an exclusive lock on
+     * it.
+     * @return a channel of the lock file, which the caller must close to release the lock.
+     * @throws IOException if the lock file could not be opened or locked.
+     */
+    private FileChannel lockFiles() throws IOException {
+        FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            // the lock is released when the channel is closed
+            channel.lock();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Formats a highscore as a line of a csv file.
+     * @param hs the highscore to format.
+     * @return the line, including the line break.
+     */
+    private static String format(HighScore hs) {
+        return hs.score() + "," + hs.name() + "," + hs.date() + "\n";
+    }
+
+    /**
+     * Parses a line of a csv file.
+     * @param line the line to parse.
+     * @return the highscore, or {@code null} if the line is not a valid highscore.
+     */
+    private static HighScore parse(String line) {
+        try {
+            String[] tokens = line.split(",");
+            int score = Integer.parseInt(tokens[0]);
+            String name = tokens[1];
+            LocalDate date = LocalDate.parse(tokens[2]);
+            return new HighScore(score, name, date);
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            LOGGER.log(Level.WARNING, "Skipping invalid high score entry: " + line, e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of saved highscores.
+     * @return the number of highscores.
+     */
+    public int size() {
+        return view().size();
+    }
+
+    /**
+     * Gets a number that changes every time the saved highscores change, including when highscores saved by other
+     * processes are read, so anything caching highscores can tell when to fetch them again.
+     * @return the current version of the highscores.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets the highscore at the given rank.
+     * @param index the rank of the highscore, where {@code 0} is the best.
+     * @return the highscore.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+     */
+    public HighScore get(int index) {
+        return view().get(index);
     }
 
     /**
-     * Returns a list of all saved highscores.
+     * Gets the best highscores.
+     * @param k the maximum number of highscores to get.
+     * @return a new list of the best {@code k} highscores in rank order, or every highscore if there are fewer.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public List<HighScore> topK(int k) {
+        return page(0, k);
+    }
+
+    /**
+     * Gets a page of highscores in rank order. The page is read from a single view of the highscores, so it is
+     * consistent even while other threads save highscores.
+     * @param offset the rank of the first highscore of the page, where {@code 0} is the best.
+     * @param limit the maximum number of highscores in the page.
+     * @return a new list of at most {@code limit} highscores, which is empty if {@code offset} is past the last
+     *         highscore.
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative.
+     */
+    public List<HighScore> page(int offset, int limit) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        View v = view();
+        int end = (int) Math.min(v.size(), (long) offset + limit);
+        List<HighScore> page = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++)
+            page.add(v.get(i));
+        return page;
+    }
+
+    /**
+     * Gets the rank a highscore with the given score has, or would have if it were saved. Equal scores share a rank.
+     * @param score the score.
+     * @return the rank of the score, where {@code 1} is the best.
+     */
+    public int rankOf(int score) {
+        return view().rankOf(score);
+    }
+
+    /**
+     * Gets the rank of the best highscore saved under the given name. Equal scores share a rank.
+     * @param name the name the highscore was saved under.
+     * @return the rank of the player's best highscore, where {@code 1} is the best, or {@code -1} if the player has no
+     *         highscores.
+     */
+    public int rankOf(String name) {
+        HighScore best = bestOf(name);
+        return best == null ? -1 : rankOf(best.score());
+    }
+
+    /**
+     * Gets the best highscore saved under the given name.
+     * @param name the name the highscores were saved under.
+     * @return the player's best highscore, or {@code null} if the player has no highscores.
+     */
+    public HighScore bestOf(String name) {
+        return index().best(name);
+    }
+
+    /**
+     * Gets the best highscore of each of the best players, so each player appears at most once.
+     * @param k the maximum number of players.
+     * @return a new list of the best highscore of each of the best {@code k} players, from best to worst. Players
+     *         with the same best score are ordered by name.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public List<HighScore> topPlayers(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative");
+        return index().topPlayers(k);
+    }
+
+    /**
+     * Gets the best highscores saved on the given day.
+     * @param day the day the highscores were saved on.
+     * @param k the maximum number of highscores to get. At most {@value HighScoreIndex#TOP_SIZE} highscores are kept
+     *          for each day.
+     * @return a new list of the best {@code k} highscores of the day in rank order.
+     * @throws IllegalArgumentException if {@code day} is null or {@code k} is negative.
+     */
+    public List<HighScore> topOfDay(LocalDate day, int k) {
+        if (day == null || k < 0)
+            throw new IllegalArgumentException("day must not be null and k must not be negative");
+        return index().topOfDay(day, k);
+    }
+
+    /**
+     * Gets the best highscores saved in the week, starting on Monday, that contains the given day.
+     * @param day any day of the week.
+     * @param k the maximum number of highscores to get. At most {@value HighScoreIndex#TOP_SIZE} highscores are kept
+     *          for each week.
+     * @return a new list of the best {@code k} highscores of the week in rank order.
+     * @throws IllegalArgumentException if {@code day} is null or {@code k} is negative.
+     */
+    public List<HighScore> topOfWeek(LocalDate day, int k) {
+        if (day == null || k < 0)
+            throw new IllegalArgumentException("day must not be null and k must not be negative");
+        return index().topOfWeek(day, k);
+    }
+
+    /**
+     * Gets a histogram of the saved scores, counting the highscores in each range of
+     * {@value HighScoreIndex#BUCKET_WIDTH} scores.
+     * @return a new map from the lowest score of each range to the number of highscores in it, in increasing order of
+     *         score. Ranges with no highscores are left out.
+     */
+    public NavigableMap<Integer, Integer> histogram() {
+        return index().histogram();
+    }
+
+    /**
+     * Gets the aggregations of the highscores, building them with a single pass over the highscores if they have not
+     * been built yet.
+     * @return the aggregations of the current highscores.
+     */
+    private HighScoreIndex index() {
+        HighScoreIndex idx = index;
+        if (idx != null)
+            return idx;
+        ioLock.lock();
+        try {
+            // no highscores are inserted while the lock is held, so none are missed between the pass and publishing
+            if (index == null) {
+                idx = new HighScoreIndex();
+                View v = view();
+                Iterator<HighScore> it = v.iterator();
+                while (it.hasNext())
+                    idx.add(it.next());
+                index = idx;
+                LOGGER.fine("Indexed " + v.size() + " high scores.");
+            }
+            return index;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a list of all saved highscores. This decodes every highscore, so it takes time proportional to the
+     * number of highscores.
      * @return a new list of all saved highscores
      */
     public List<HighScore> hslist() {
-        return new ArrayList<>(highscores);
+        View v = view();
+        List<HighScore> list = new ArrayList<>(v.size());
+        v.iterator().forEachRemaining(list::add);
+        return list;
+    }
+
+    /**
+     * Gets a view of the highscores, creating a new one if the highscores changed since the last view was created.
+     * @return a view of the current highscores.
+     */
+    private View view() {
+        View v = view;
+        if (v != null && v.version == version.get())
+            return v;
+        stateLock.readLock().lock();
+        try {
+            // the version is read first, so a highscore inserted while copying leaves the view out of date
+            long current = version.get();
+            v = new View(current, snapshot, recent.values().toArray(new HighScore[0]));
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        view = v;
+        return v;
+    }
+
+    /**
+     * Merges two iterators over highscores in rank order into one, placing highscores from {@code first} before
+     * highscores from {@code second} with the same score.
+     * @param first the first iterator.
+     * @param second the second iterator.
+     * @return an iterator over the highscores of both iterators in rank order.
+     */
+    private static Iterator<HighScore> merge(Iterator<HighScore> first, Iterator<HighScore> second) {
+        return new Iterator<>() {
+            /** The next highscore of {@code first}, or {@code null} if it has not been taken yet. */
+            private HighScore a = first.hasNext() ? first.next() : null;
+
+            /** The next highscore of {@code second}, or {@code null} if it has not been taken yet. */
+            private HighScore b = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return a != null || b != null;
+            }
+
+            @Override
+            public HighScore next() {
+                HighScore next;
+                if (a != null && (b == null || a.score() >= b.score())) {
+                    next = a;
+                    a = first.hasNext() ? first.next() : null;
+                } else if (b != null) {
+                    next = b;
+                    b = second.hasNext() ? second.next() : null;
+                } else {
+                    throw new NoSuchElementException();
+                }
+                return next;
+            }
+        };
     }
 
     /**
@@ -134,4 +903,182 @@ public class HighScoreManager {
      */
     public record HighScore(int score, String name, LocalDate date){}
 
+    /**
+     * Orders the recent highscores from best to worst, with equal scores in the order they were added.
+     * @param score the score of the highscore
+     * @param seq the order the highscore was added in
+     */
+    private record Key(int score, long seq) implements Comparable<Key> {
+        /**
+         * Compares this key to another key, placing higher scores first.
+         * @param other the key to compare to.
+         * @return a negative number if this key comes first, a positive number if it comes second, or {@code 0} if the
+         *         keys are equal.
+         */
+        @Override
+        public int compareTo(Key other) {
+            if (score != other.score)
+                return Integer.compare(other.score, score);
+            return Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * The first line of the log, naming the snapshot the log was started for.
+     * @param base the number of highscores the snapshot held
+     * @param generation the generation of the snapshot
+     */
+    private record LogHeader(int base, long generation) {}
+
+    /**
+     * A highscore queued to be appended to the log.
+     */
+    private static final class Pending {
+        /** The highscore to append. */
+        private final HighScore highScore;
+
+        /** Specifies whether the highscore has been committed. Guarded by the {@code ioLock}. */
+        private boolean committed;
+
+        /**
+         * Creates a new {@code Pending} highscore.
+         * @param highScore the highscore to append.
+         */
+        Pending(HighScore highScore) {
+            this.highScore = highScore;
+            committed = false;
+        }
+    }
+
+    /**
+     * An immutable view of the highscores at one point in time, made up of the snapshot and a copy of the recent
+     * highscores. Queries made through the same view agree with each other even while other threads save highscores.
+     */
+    private static final class View {
+        /** The {@code version} of the highscores the view was created from. */
+        private final long version;
+
+        /** The highscores in the highscores file. */
+        private final HighScoreFile snapshot;
+
+        /** The recent highscores in rank order. */
+        private final HighScore[] recent;
+
+        /** The rank of each highscore in {@code recent} among all highscores, in increasing order. */
+        private final int[] ranks;
+
+        /**
+         * Creates a view, finding the rank of each recent highscore with a binary search over the snapshot.
+         * @param version the version of the highscores.
+         * @param snapshot the highscores in the highscores file.
+         * @param recent the recent highscores in rank order.
+         */
+        View(long version, HighScoreFile snapshot, HighScore[] recent) {
+            this.version = version;
+            this.snapshot = snapshot;
+            this.recent = recent;
+            ranks = new int[recent.length];
+            for (int j = 0; j < recent.length; j++) {
+                // recent highscores are placed after snapshot highscores with the same score
+                ranks[j] = j + countAbove(recent[j].score(), true);
+            }
+        }
+
+        /**
+         * Gets the number of highscores.
+         * @return the number of highscores.
+         */
+        int size() {
+            return snapshot.size() + recent.length;
+        }
+
+        /**
+         * Gets the highscore at the given rank.
+         * @param index the rank of the highscore, where {@code 0} is the best.
+         * @return the highscore.
+         * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+         */
+        HighScore get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size() + " highscores");
+            int j = Arrays.binarySearch(ranks, index);
+            if (j >= 0)
+                return recent[j];
+            // every recent highscore before the insertion point is ranked above this one
+            return snapshot.get(index - (-j - 1));
+        }
+
+        /**
+         * Gets the rank a highscore with the given score has, or would have if it were saved.
+         * @param score the score.
+         * @return the rank of the score, where {@code 1} is the best.
+         */
+        int rankOf(int score) {
+            return 1 + countAbove(score, false) + countRecentAbove(score);
+        }
+
+        /**
+         * Counts the highscores in the snapshot with a score greater than, or optionally equal to, the given score
+         * using a binary search over the mapped scores.
+         * @param score the score to compare to.
+         * @param inclusive whether to count highscores equal to {@code score}.
+         * @return the number of snapshot highscores ranked above a new highscore with the given score.
+         */
+        private int countAbove(int score, boolean inclusive) {
+            int l = 0;
+            int r = snapshot.size();
+            while (l < r) {
+                int m = (l + r) >>> 1;
+                int s = snapshot.score(m);
+                if (s > score || (inclusive && s == score))
+                    l = m + 1;
+                else
+                    r = m;
+            }
+            return l;
+        }
+
+        /**
+         * Counts the recent highscores with a score greater than the given score using a binary search.
+         * @param score the score to compare to.
+         * @return the number of recent highscores with a greater score.
+         */
+        private int countRecentAbove(int score) {
+            int l = 0;
+            int r = recent.length;
+            while (l < r) {
+                int m = (l + r) >>> 1;
+                if (recent[m].score() > score)
+                    l = m + 1;
+                else
+                    r = m;
+            }
+            return l;
+        }
+
+        /**
+         * Creates an iterator over the highscores in rank order. Highscores in the snapshot are placed before recent
+         * highscores with the same score, as they were saved first.
+         * @return an iterator over the highscores.
+         */
+        Iterator<HighScore> iterator() {
+            Iterator<HighScore> saved = new Iterator<>() {
+                /** The rank of the next highscore in the snapshot. */
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < snapshot.size();
+                }
+
+                @Override
+                public HighScore next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return snapshot.get(next++);
+                }
+            };
+            return merge(saved, Arrays.asList(recent).iterator());
+        }
+    }
 }